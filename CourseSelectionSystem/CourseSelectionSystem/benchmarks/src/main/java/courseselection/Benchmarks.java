@@ -0,0 +1,31 @@
+package courseselection;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar: the JMH command line with the GC profiler always on, so every
+// result comes with its allocation per operation (gc.alloc.rate.norm). For example
+//   mvn -B package
+//   cd $(mktemp -d) && java -jar .../benchmarks/target/benchmarks.jar CourseManagerBenchmark -p size=1000,100000
+// The default sizes run from 1k to 10M rows; the 10M runs need the 8 GB heap the forks ask for.
+// Run from an empty directory, since the FileHandler benchmarks write ./data.
+public final class Benchmarks {
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Runner runner = new Runner(commandLine);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+        } else if (commandLine.shouldList()) {
+            runner.list();
+        } else {
+            Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+            new Runner(options).run();
+        }
+    }
+}
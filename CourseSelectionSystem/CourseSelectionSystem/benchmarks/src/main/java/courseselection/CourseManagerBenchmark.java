@@ -0,0 +1,55 @@
+package courseselection;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Read paths of CourseManager over a table of size rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CourseManagerBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private CourseManager manager;
+    private String[] keywords;
+    private String[] semesters;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Workloads.manager(size);
+        keywords = Workloads.searchKeywords(size);
+        semesters = Workloads.semesters();
+    }
+
+    @Benchmark
+    public List<CourseSelection> searchByStudent() {
+        return manager.searchByStudent(keywords[Math.floorMod(next++, keywords.length)]);
+    }
+
+    @Benchmark
+    public List<CourseSelection> sortByCredit() {
+        return manager.sortByCredit();
+    }
+
+    @Benchmark
+    public int countCoursesBySemester() {
+        return manager.countCoursesBySemester(semesters[Math.floorMod(next++, semesters.length)]);
+    }
+}
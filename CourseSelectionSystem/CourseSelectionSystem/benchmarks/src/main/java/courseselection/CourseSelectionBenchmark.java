@@ -0,0 +1,56 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Row text format: parse or format every row of a size-row file
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CourseSelectionBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<CourseSelection> rows;
+    private List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = Workloads.rows(size);
+        lines = new ArrayList<>(size);
+        for (CourseSelection row : rows) {
+            lines.add(row.toFileString());
+        }
+    }
+
+    @Benchmark
+    public void fromFileString(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(CourseSelection.fromFileString(line));
+        }
+    }
+
+    @Benchmark
+    public void toFileString(Blackhole blackhole) {
+        for (CourseSelection row : rows) {
+            blackhole.consume(row.toFileString());
+        }
+    }
+}
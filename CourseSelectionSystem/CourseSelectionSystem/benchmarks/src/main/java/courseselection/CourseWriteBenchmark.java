@@ -0,0 +1,77 @@
+package courseselection;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Write paths of CourseManager. Writes change the table, so each measurement is a single shot
+// on state rebuilt before every iteration: a batch of adds into a table of size rows, and an
+// import of size rows into an empty manager.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CourseWriteBenchmark {
+    private static final int ADD_BATCH = 10_000;
+
+    @State(Scope.Thread)
+    public static class Table {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        CourseManager manager;
+        List<CourseSelection> fresh;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            manager = Workloads.manager(size);
+            fresh = Workloads.freshRows(ADD_BATCH);
+            next = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Rows {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        List<CourseSelection> rows;
+        CourseManager empty;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            rows = Workloads.rows(size);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            empty = new CourseManager();
+        }
+    }
+
+    // One add per invocation; the reported time covers ADD_BATCH of them
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = ADD_BATCH)
+    @Measurement(iterations = 5, batchSize = ADD_BATCH)
+    public boolean addCourseSelection(Table table) {
+        return table.manager.addCourseSelection(table.fresh.get(table.next++));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public int importCourseSelections(Rows rows) {
+        return rows.empty.importCourseSelections(rows.rows);
+    }
+}
@@ -0,0 +1,65 @@
+package courseselection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Snapshot save (checkpoint: snapshot, journal truncation, backup generation) and load of a
+// size-row table. FileHandler works on ./data, so these run only in a working directory whose
+// data directory is empty or was created by an earlier benchmark run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class FileHandlerBenchmark {
+    private static final Path DATA_FILE = Paths.get(FileHandler.getDefaultDataFilePath());
+    private static final Path MARKER = DATA_FILE.resolveSibling(".benchmark");
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private FileHandler fileHandler;
+    private CourseManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (Files.exists(DATA_FILE) && !Files.exists(MARKER)) {
+            throw new IllegalStateException("Refusing to overwrite application data in "
+                + DATA_FILE.toAbsolutePath() + "; run the benchmarks from an empty directory");
+        }
+        fileHandler = new FileHandler();
+        Files.createDirectories(MARKER.getParent());
+        Files.write(MARKER, new byte[0]);
+        manager = Workloads.manager(size);
+        if (!fileHandler.saveData(manager)) {
+            throw new IllegalStateException("Could not write the benchmark snapshot");
+        }
+    }
+
+    @Benchmark
+    public boolean saveData() {
+        return fileHandler.saveData(manager);
+    }
+
+    @Benchmark
+    public List<CourseSelection> loadData() {
+        return fileHandler.loadData();
+    }
+}
@@ -0,0 +1,100 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic, valid course selections for the benchmarks. Row i belongs to student i / 10
+// and takes the course of department i % 10, so every prefix of rows has unique keys and
+// N rows span N / 10 students; the six-digit student ID allows up to 10M rows.
+final class Workloads {
+    static final int MAX_ROWS = 10_000_000;
+
+    private static final String[] FIRST_NAMES = {
+        "Ann", "Ben", "Chloe", "David", "Emma", "Felix", "Grace", "Hugo", "Iris", "Jack",
+        "Kate", "Liam", "Mia", "Noah", "Olivia", "Paul", "Quinn", "Rose", "Sam", "Tara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Lee", "Smith", "Chen", "Garcia", "Brown", "Wang", "Jones", "Miller", "Davis", "Wilson",
+        "Moore", "Taylor", "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Hill", "Scott",
+        "Green", "Adams", "Baker", "Nelson", "Carter", "Mitchell", "Perez", "Roberts", "Turner", "Phillips"
+    };
+    private static final String[] DEPARTMENTS = {"MAT", "PHY", "CHE", "BIO", "CSC", "ENG", "HIS", "ECO", "ART", "PSY"};
+    private static final String[] SUBJECTS = {
+        "Calculus", "Mechanics", "Organic Chemistry", "Genetics", "Algorithms",
+        "Composition", "World History", "Microeconomics", "Drawing", "Cognition"
+    };
+
+    private Workloads() {
+    }
+
+    static CourseSelection row(int i) {
+        if (i < 0 || i >= MAX_ROWS) {
+            throw new IllegalArgumentException("Row out of range: " + i);
+        }
+        int student = i / 10;
+        int department = i % 10;
+        int number = 100 + (student * 31 + department) % 900;
+        return new CourseSelection(
+            sixDigits(student),
+            studentName(student),
+            DEPARTMENTS[department] + number,
+            SUBJECTS[department] + " " + number,
+            (2015 + (student + department) % 10) + (department % 2 == 0 ? "-F" : "-S"),
+            16 * (1 + department % 4),
+            0.5 * (1 + (student + department) % 8),
+            department % 3 == 0 ? "check" : "exam");
+    }
+
+    static List<CourseSelection> rows(int count) {
+        List<CourseSelection> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    // Rows whose keys never occur among row(i): the NEW department is not one of the ten above
+    static List<CourseSelection> freshRows(int count) {
+        List<CourseSelection> rows = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            int student = j % 1_000_000;
+            rows.add(new CourseSelection(sixDigits(student), studentName(student),
+                "NEW" + sixDigits(j / 1_000_000).substring(3), "Seminar", "2024-F", 32, 2.0, "exam"));
+        }
+        return rows;
+    }
+
+    static CourseManager manager(int size) {
+        CourseManager manager = new CourseManager();
+        manager.importCourseSelections(rows(size));
+        return manager;
+    }
+
+    // Mix of search terms a user types: surnames, first names, name fragments and ID prefixes
+    static String[] searchKeywords(int size) {
+        int students = Math.max(1, size / 10);
+        return new String[] {
+            "Chen", "Mitchell", "Olivia", "Hugo", "ann", "ill", "Rose Wright", "Sam K",
+            sixDigits(students / 3), sixDigits(students / 2).substring(0, 4),
+            sixDigits(students - 1), "Quinn Adams", "ker", "Tara", "Liam Lee", "Jones"
+        };
+    }
+
+    static String[] semesters() {
+        String[] semesters = new String[20];
+        for (int i = 0; i < semesters.length; i++) {
+            semesters[i] = (2015 + i / 2) + (i % 2 == 0 ? "-F" : "-s");
+        }
+        return semesters;
+    }
+
+    private static String studentName(int student) {
+        return FIRST_NAMES[student % FIRST_NAMES.length] + " "
+            + LAST_NAMES[(student / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    private static String sixDigits(int value) {
+        String digits = Integer.toString(value);
+        return "000000".substring(digits.length()) + digits;
+    }
+}
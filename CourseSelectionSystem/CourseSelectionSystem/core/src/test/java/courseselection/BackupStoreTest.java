@@ -0,0 +1,88 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BackupStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoreRebuildsEachGeneration() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("backups"), 5);
+        Path file = dir.resolve("courses.txt");
+        byte[] original = content(1, 400_000);
+        write(file, original, 1_000);
+        long first = store.backup(file);
+        assertEquals(first, store.backup(file));
+
+        // An edit in the middle shares the chunks before and after it with the first generation
+        byte[] edited = original.clone();
+        Arrays.fill(edited, 200_000, 200_100, (byte) 'x');
+        write(file, edited, 2_000);
+        long second = store.backup(file);
+        assertEquals(first + 1, second);
+
+        assertTrue(store.restore(first, file));
+        assertArrayEquals(original, Files.readAllBytes(file));
+        assertEquals(1_000, Files.getLastModifiedTime(file).toMillis());
+        assertTrue(store.restore(second, file));
+        assertArrayEquals(edited, Files.readAllBytes(file));
+        Path missing = dir.resolve("restored.txt");
+        assertTrue(store.restore(first, missing));
+        assertArrayEquals(original, Files.readAllBytes(missing));
+        assertFalse(store.restore(second + 1, missing));
+    }
+
+    // A damaged chunk fails the restore and leaves the target as it was
+    @Test
+    void damagedChunkLeavesTheTargetUntouched() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("backups"), 5);
+        Path file = dir.resolve("courses.txt");
+        byte[] original = content(2, 200_000);
+        write(file, original, 1_000);
+        long generation = store.backup(file);
+
+        List<Path> chunks;
+        try (Stream<Path> files = Files.walk(dir.resolve("backups").resolve("chunks"))) {
+            chunks = files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path chunk : chunks) {
+            byte[] bytes = Files.readAllBytes(chunk);
+            bytes[0] ^= 1;
+            Files.write(chunk, bytes);
+        }
+        byte[] current = content(3, 1_000);
+        write(file, current, 2_000);
+        assertThrows(IOException.class, () -> store.restore(generation, file));
+        assertArrayEquals(current, Files.readAllBytes(file));
+        assertFalse(Files.exists(dir.resolve("courses.txt.restore.tmp")));
+    }
+
+    private static byte[] content(long seed, int size) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    // The store detects changes by size and modification time, so each version gets its own time
+    private static void write(Path file, byte[] bytes, long modifiedMillis) throws IOException {
+        Files.write(file, bytes);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,71 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CourseBinaryFormatTest {
+    @TempDir
+    Path dir;
+
+    // More rows than fit one page, plus a null name and non-ASCII text
+    @Test
+    void roundTripKeepsEveryRowInOrder() throws Exception {
+        List<CourseSelection> rows = rows();
+        Path file = dir.resolve("rows.bin");
+        CourseBinaryFormat.write(rows, file);
+        assertTrue(CourseBinaryFormat.isBinary(file));
+
+        List<CourseSelection> read = CourseBinaryFormat.read(file);
+        assertEquals(storage(rows), storage(read));
+        assertNull(read.get(rows.size() - 2).getStudentName());
+
+        List<Integer> pages = new ArrayList<>();
+        assertTrue(CourseBinaryFormat.readPages(file, (page, bytesRead, totalRows) -> {
+            assertEquals(rows.size(), totalRows);
+            pages.add(page.size());
+            return true;
+        }));
+        assertTrue(pages.size() > 1, "one page only");
+        assertEquals(rows.size(), pages.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void damagedFileIsRejected() throws Exception {
+        Path file = dir.resolve("rows.bin");
+        CourseBinaryFormat.write(rows(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> CourseBinaryFormat.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> CourseBinaryFormat.read(file));
+    }
+
+    private static List<CourseSelection> rows() {
+        List<CourseSelection> rows = new ArrayList<>(new DatasetGenerator().rows(70_000).seed(3)
+            .malformedRate(0).rows());
+        rows.add(new CourseSelection("123456", null, "ABC123", "Ästhetik", "2024-S", 16, 1.0 / 3, "check"));
+        rows.add(new CourseSelection("123457", "Zoë Ðuric", "ABC124", "日本語", "2024-F", 48, 4.5, "exam"));
+        return rows;
+    }
+
+    private static List<String> storage(List<CourseSelection> rows) {
+        List<String> lines = new ArrayList<>(rows.size());
+        for (CourseSelection row : rows) {
+            lines.add(row.toStorageString());
+        }
+        return lines;
+    }
+}
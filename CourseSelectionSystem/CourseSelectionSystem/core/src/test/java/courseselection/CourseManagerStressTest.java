@@ -0,0 +1,323 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+// Writers add, delete, modify and import while readers search, page, snapshot and total.
+// Every row is derived from its key and a level, so a reader that sees fields of two
+// versions of one row (a torn row) notices: hours, credit, type and course name all follow
+// from the level, and the student name from the student ID. Each writer owns a range of
+// student IDs and keeps a model of its rows; at the end the manager, its indexes and the
+// journal must all agree with the models.
+class CourseManagerStressTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPERATIONS_PER_WRITER = 4_000;
+    private static final int STUDENTS_PER_WRITER = 40;
+    private static final int COURSES = 12;
+    private static final int LEVELS = 8;
+    private static final String[] SEMESTERS = {"2023-F", "2024-S"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void concurrentWritesAndReadsStayConsistent() throws Exception {
+        CourseManager manager = new CourseManager();
+        // Seed rows before the journal is attached, as a load does; the journal holds the rest
+        List<Map<SelectionKey, Integer>> models = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            Map<SelectionKey, Integer> model = new HashMap<>();
+            Random random = new Random(writer);
+            List<CourseSelection> seed = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                CourseSelection row = randomRow(writer, random);
+                if (!model.containsKey(row.getKey())) {
+                    model.put(row.getKey(), level(row));
+                    seed.add(row);
+                }
+            }
+            assertEquals(seed.size(), manager.importCourseSelections(seed));
+            models.add(model);
+        }
+        Map<SelectionKey, CourseSelection> journaled = new HashMap<>();
+        for (CourseSelection row : manager.getAllCourseSelections()) {
+            journaled.put(row.getKey(), row);
+        }
+        Path journalFile = dir.resolve("courses.journal");
+        MutationJournal journal = new MutationJournal(journalFile, 0);
+        manager.setMutationListener(journal);
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            int id = writer;
+            writers.add(pool.submit(() -> guard(failures, () -> {
+                start.await();
+                write(manager, id, models.get(id));
+            })));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            int id = reader;
+            readers.add(pool.submit(() -> guard(failures, () -> {
+                start.await();
+                Random random = new Random(100 + id);
+                while (writing.get()) {
+                    read(manager, random);
+                }
+            })));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        pool.shutdown();
+        journal.close();
+        if (!failures.isEmpty()) {
+            Throwable first = failures.peek();
+            failures.stream().skip(1).forEach(first::addSuppressed);
+            throw new AssertionError("Reader or writer failed", first);
+        }
+
+        Map<SelectionKey, Integer> expected = new HashMap<>();
+        models.forEach(expected::putAll);
+        assertMatches(manager, expected);
+
+        MutationJournal.replay(journalFile, journaled);
+        Map<SelectionKey, Integer> replayed = new HashMap<>();
+        journaled.forEach((key, row) -> replayed.put(key, level(row)));
+        assertEquals(expected, replayed, "journal replay");
+    }
+
+    // Random operations on this writer's own students; the model follows every reported success
+    private static void write(CourseManager manager, int writer, Map<SelectionKey, Integer> model) {
+        Random random = new Random(writer + 1000);
+        for (int op = 0; op < OPERATIONS_PER_WRITER; op++) {
+            int choice = random.nextInt(10);
+            if (choice < 4) {
+                CourseSelection row = randomRow(writer, random);
+                boolean added = manager.addCourseSelection(row);
+                assertEquals(!model.containsKey(row.getKey()), added, "add " + row.getKey());
+                model.putIfAbsent(row.getKey(), level(row));
+            } else if (choice < 6) {
+                SelectionKey key = randomRow(writer, random).getKey();
+                boolean deleted = manager.deleteCourseSelection(key.getStudentId(), key.getCourseId(), key.getSemester());
+                assertEquals(model.remove(key) != null, deleted, "delete " + key);
+            } else if (choice < 9) {
+                SelectionKey key = randomRow(writer, random).getKey();
+                int level = random.nextInt(LEVELS);
+                boolean modified = manager.modifyCourseSelection(key.getStudentId(), key.getCourseId(),
+                    key.getSemester(), row(key.getStudentId(), key.getCourseId(), key.getSemester(), level));
+                assertEquals(model.containsKey(key), modified, "modify " + key);
+                model.computeIfPresent(key, (k, old) -> level);
+            } else {
+                List<CourseSelection> batch = new ArrayList<>();
+                int expectedAdded = 0;
+                Map<SelectionKey, Integer> inBatch = new HashMap<>();
+                for (int i = 0; i < 20; i++) {
+                    CourseSelection row = randomRow(writer, random);
+                    batch.add(row);
+                    if (!model.containsKey(row.getKey()) && inBatch.putIfAbsent(row.getKey(), level(row)) == null) {
+                        expectedAdded++;
+                    }
+                }
+                assertEquals(expectedAdded, manager.importCourseSelections(batch), "import");
+                inBatch.forEach(model::putIfAbsent);
+            }
+        }
+    }
+
+    private static void read(CourseManager manager, Random random) {
+        switch (random.nextInt(4)) {
+            case 0: {
+                String student = studentId(random.nextInt(WRITERS), random.nextInt(STUDENTS_PER_WRITER));
+                for (CourseSelection row : manager.searchByStudent(studentName(student))) {
+                    assertIntact(row);
+                    assertEquals(student, row.getStudentId(), "search by name matched another student");
+                }
+                for (CourseSelection row : manager.getCoursesByStudentId(student)) {
+                    assertIntact(row);
+                    assertEquals(student, row.getStudentId());
+                }
+                break;
+            }
+            case 1: {
+                List<CourseSelection> page = manager.page(CourseColumn.CREDIT, random.nextBoolean(),
+                    random.nextInt(1_000), 50);
+                double previous = Double.NaN;
+                boolean descending = page.size() > 1 && page.get(0).getCredit() > page.get(page.size() - 1).getCredit();
+                for (CourseSelection row : page) {
+                    assertIntact(row);
+                    if (!Double.isNaN(previous)) {
+                        assertTrue(descending ? row.getCredit() <= previous : row.getCredit() >= previous,
+                            "page out of credit order");
+                    }
+                    previous = row.getCredit();
+                }
+                break;
+            }
+            case 2: {
+                try (CourseSnapshot snapshot = manager.snapshot()) {
+                    Map<SelectionKey, Boolean> seen = new HashMap<>();
+                    for (CourseSelection row : snapshot.getSelections()) {
+                        assertIntact(row);
+                        assertTrue(seen.put(row.getKey(), true) == null, "snapshot repeats " + row.getKey());
+                    }
+                    assertEquals(snapshot.size(), seen.size());
+                }
+                break;
+            }
+            default: {
+                int count = 0;
+                for (CourseTotals totals : manager.totalsBy(CourseTotals.GroupBy.SEMESTER)) {
+                    assertTotalsIntact(totals);
+                    count += totals.getCount();
+                }
+                assertTotalsIntact(manager.totalsForSemester(SEMESTERS[random.nextInt(SEMESTERS.length)]));
+                assertTrue(count >= 0);
+            }
+        }
+    }
+
+    private static void assertMatches(CourseManager manager, Map<SelectionKey, Integer> expected) {
+        assertEquals(expected.size(), manager.size(), "size");
+        Map<SelectionKey, Integer> actual = new HashMap<>();
+        for (CourseSelection row : manager.getAllCourseSelections()) {
+            assertIntact(row);
+            actual.put(row.getKey(), level(row));
+        }
+        assertEquals(expected, actual, "rows");
+        try (CourseSnapshot snapshot = manager.snapshot()) {
+            assertEquals(expected.size(), snapshot.size(), "snapshot size");
+        }
+
+        // Secondary indexes: by student, by semester, the credit order and the totals
+        for (int writer = 0; writer < WRITERS; writer++) {
+            for (int student = 0; student < STUDENTS_PER_WRITER; student++) {
+                String id = studentId(writer, student);
+                long rows = expected.keySet().stream().filter(key -> key.getStudentId().equals(id)).count();
+                assertEquals(rows, manager.getCoursesByStudentId(id).size(), "rows of " + id);
+                assertEquals(rows, manager.searchByStudent(studentName(id)).size(), "search of " + id);
+            }
+        }
+        int semesterTotal = 0;
+        for (String semester : SEMESTERS) {
+            long rows = expected.keySet().stream().filter(key -> key.getSemester().equals(semester)).count();
+            assertEquals(rows, manager.countCoursesBySemester(semester), "rows of " + semester);
+            assertEquals(rows, manager.getCoursesBySemester(semester).size(), "list of " + semester);
+            CourseTotals totals = manager.totalsForSemester(semester);
+            assertEquals(rows, totals.getCount(), "totals of " + semester);
+            assertTotalsIntact(totals);
+            semesterTotal += totals.getCount();
+        }
+        assertEquals(expected.size(), semesterTotal, "semester totals");
+
+        List<Double> credits = new ArrayList<>();
+        for (CourseSelection row : manager.page(CourseColumn.CREDIT, false, 0, Integer.MAX_VALUE)) {
+            credits.add(row.getCredit());
+        }
+        List<Double> sorted = new ArrayList<>();
+        expected.values().forEach(level -> sorted.add(credit(level)));
+        Collections.sort(sorted);
+        assertEquals(sorted, credits, "credit order");
+    }
+
+    // Every field must come from the same level and the same student ID
+    private static void assertIntact(CourseSelection row) {
+        int level = level(row);
+        assertTrue(level >= 0 && level < LEVELS, "credit of " + row);
+        assertEquals(hours(level), row.getHours(), "hours of " + row);
+        assertEquals(type(level), row.getType(), "type of " + row);
+        assertEquals(courseName(level), row.getCourseName(), "course name of " + row);
+        assertEquals(studentName(row.getStudentId()), row.getStudentName(), "student name of " + row);
+    }
+
+    // hours = 32 * credit - 16 holds row by row, so it holds for any sum of whole rows
+    private static void assertTotalsIntact(CourseTotals totals) {
+        assertEquals(32 * totals.getCreditSum() - 16.0 * totals.getCount(), totals.getHoursSum(), 1e-6,
+            "totals " + totals);
+    }
+
+    private static void guard(ConcurrentLinkedQueue<Throwable> failures, Work work) {
+        try {
+            work.run();
+        } catch (Throwable t) {
+            failures.add(t);
+        }
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static CourseSelection randomRow(int writer, Random random) {
+        return row(studentId(writer, random.nextInt(STUDENTS_PER_WRITER)), "CSC" + (100 + random.nextInt(COURSES)),
+            SEMESTERS[random.nextInt(SEMESTERS.length)], random.nextInt(LEVELS));
+    }
+
+    private static CourseSelection row(String studentId, String courseId, String semester, int level) {
+        return new CourseSelection(studentId, studentName(studentId), courseId, courseName(level), semester,
+            hours(level), credit(level), type(level));
+    }
+
+    private static String studentId(int writer, int student) {
+        return String.valueOf(100_000 + writer * 1_000 + student);
+    }
+
+    // Letters only, capitalized as the manager normalizes names: 100203 -> "Student Baacad"
+    private static String studentName(String studentId) {
+        StringBuilder name = new StringBuilder("Student ");
+        for (int i = 0; i < studentId.length(); i++) {
+            char letter = (char) ('a' + studentId.charAt(i) - '0');
+            name.append(i == 0 ? Character.toUpperCase(letter) : letter);
+        }
+        return name.toString();
+    }
+
+    private static int level(CourseSelection row) {
+        return (int) Math.round((row.getCredit() - 1) * 2);
+    }
+
+    private static double credit(int level) {
+        return 1 + level * 0.5;
+    }
+
+    private static int hours(int level) {
+        return 16 * (level + 1);
+    }
+
+    private static String type(int level) {
+        return level % 2 == 0 ? "exam" : "check";
+    }
+
+    private static String courseName(int level) {
+        return "Level " + level;
+    }
+}
@@ -0,0 +1,133 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+// Single-threaded behaviour of CourseManager; CourseManagerStressTest covers concurrent use
+class CourseManagerTest {
+
+    // Deleting and re-adding rows frees row ids and reuses them; an open snapshot must keep
+    // showing the rows of its version
+    @Test
+    void snapshotKeepsItsVersionWhileWritersChangeRows() {
+        CourseManager manager = new CourseManager();
+        List<CourseSelection> rows = FileHandlerTest.rows();
+        assertEquals(rows.size(), manager.importCourseSelections(FileHandlerTest.rows()));
+        List<String> before = FileHandlerTest.stored(manager);
+
+        try (CourseSnapshot snapshot = manager.snapshot()) {
+            long version = manager.getVersion();
+            for (CourseSelection row : rows) {
+                assertTrue(manager.deleteCourseSelection(row.getStudentId(), row.getCourseId(), row.getSemester()));
+            }
+            assertTrue(manager.addCourseSelection(new CourseSelection("200000", "Bo Chen", "MAT200",
+                "Linear Algebra", "2024-S", 48, 4.0, "check")));
+            CourseSelection first = rows.get(0);
+            first.setCredit(5.5);
+            assertTrue(manager.addCourseSelection(first));
+
+            assertEquals(version, snapshot.getVersion());
+            assertEquals(before, FileHandlerTest.stored(snapshot.getSelections()));
+        }
+        assertEquals(2, manager.size());
+    }
+
+    // Whatever access path the planner picks, a query returns exactly the rows its conditions
+    // select, in its order
+    @Test
+    void queryMatchesAFilterOverEveryRow() {
+        CourseManager manager = new CourseManager();
+        manager.importCourseSelections(new DatasetGenerator().rows(20_000).seed(11).students(2_000, 0.3)
+            .courses(200, 0.8).malformedRate(0).rows());
+        List<CourseSelection> all = manager.getAllCourseSelections();
+        String student = all.get(0).getStudentId();
+        String semester = all.get(5).getSemester();
+
+        check(manager, all, new CourseQuery().where(CourseColumn.STUDENT_ID, CourseQuery.Operator.EQUALS, student),
+            row -> row.getStudentId().equals(student), "student index");
+        check(manager, all, new CourseQuery()
+                .where(CourseColumn.SEMESTER, CourseQuery.Operator.EQUALS, semester)
+                .where(CourseColumn.CREDIT, CourseQuery.Operator.GREATER_OR_EQUAL, 3)
+                .where(CourseColumn.TYPE, CourseQuery.Operator.EQUALS, "EXAM"),
+            row -> row.getSemester().equals(semester) && row.getCredit() >= 3 && row.getType().equals("exam"),
+            "semester index");
+        check(manager, all, new CourseQuery().where(CourseColumn.STUDENT_NAME, CourseQuery.Operator.CONTAINS, "LIVIA"),
+            row -> row.getStudentName().toLowerCase().contains("livia"), "trigram index");
+        // A bulk import leaves the column orders stale; the planner only walks current ones
+        manager.prepareOrder(CourseColumn.CREDIT);
+        check(manager, all, new CourseQuery().whereBetween(CourseColumn.CREDIT, 4.5, 5)
+                .where(CourseColumn.COURSE_ID, CourseQuery.Operator.GREATER, "MAT000"),
+            row -> row.getCredit() >= 4.5 && row.getCredit() <= 5 && row.getCourseId().compareTo("MAT000") > 0,
+            "CREDIT order");
+
+        // An ordered page holds the right stretch of the matches, by the order column
+        CourseQuery page = new CourseQuery().where(CourseColumn.TYPE, CourseQuery.Operator.EQUALS, "check")
+            .orderBy(CourseColumn.CREDIT, true).offset(40).limit(25);
+        List<Double> expected = new ArrayList<>();
+        all.stream().filter(row -> row.getType().equals("check")).map(CourseSelection::getCredit)
+            .sorted((a, b) -> Double.compare(b, a)).skip(40).limit(25).forEach(expected::add);
+        List<Double> credits = new ArrayList<>();
+        for (CourseSelection row : manager.query(page)) {
+            assertEquals("check", row.getType());
+            credits.add(row.getCredit());
+        }
+        assertEquals(expected, credits);
+    }
+
+    private static void check(CourseManager manager, List<CourseSelection> all, CourseQuery query,
+                              Predicate<CourseSelection> filter, String access) {
+        List<CourseSelection> expected = new ArrayList<>();
+        for (CourseSelection row : all) {
+            if (filter.test(row)) {
+                expected.add(row);
+            }
+        }
+        assertFalse(expected.isEmpty(), query.getConditions().toString());
+        assertTrue(manager.explain(query).contains(access), manager.explain(query));
+        assertEquals(FileHandlerTest.stored(expected), FileHandlerTest.stored(manager.query(query)));
+        assertEquals(expected.size(), manager.count(query));
+    }
+
+    // One failing mutation undoes the ones before it; without it the same batch commits
+    @Test
+    void applyBatchIsAllOrNothing() {
+        CourseManager manager = new CourseManager();
+        List<CourseSelection> rows = FileHandlerTest.rows();
+        manager.importCourseSelections(FileHandlerTest.rows());
+        List<String> before = FileHandlerTest.stored(manager);
+
+        BatchReport report = manager.applyBatch(batch(rows, true));
+        assertFalse(report.isCommitted());
+        assertEquals(BatchReport.Outcome.NOT_FOUND, report.getOutcome(3));
+        assertEquals(3, report.count(BatchReport.Outcome.ABORTED));
+        assertEquals(before, FileHandlerTest.stored(manager));
+
+        report = manager.applyBatch(batch(rows, false));
+        assertTrue(report.isCommitted());
+        assertEquals(3, report.getApplied());
+        assertEquals(rows.size(), manager.size());
+        assertEquals(-1, manager.getRecordVersion(rows.get(0).getStudentId(), rows.get(0).getCourseId(),
+            rows.get(0).getSemester()));
+        assertEquals(4.5, manager.getCoursesByStudentId(rows.get(1).getStudentId()).get(0).getCredit());
+    }
+
+    private static List<Mutation> batch(List<CourseSelection> rows, boolean withMissingKey) {
+        List<Mutation> batch = new ArrayList<>();
+        batch.add(Mutation.add(new CourseSelection("200000", "Bo Chen", "MAT200", "Linear Algebra",
+            "2024-S", 48, 4.0, "check")));
+        batch.add(Mutation.delete(rows.get(0).getKey()));
+        CourseSelection modified = new CourseSelection(rows.get(1).getStudentId(), "Ann Lee",
+            rows.get(1).getCourseId(), "Data Structures", rows.get(1).getSemester(), 32, 4.5, "exam");
+        batch.add(Mutation.modify(rows.get(1).getKey(), modified));
+        if (withMissingKey) {
+            batch.add(Mutation.delete(SelectionKey.of("999999", "XYZ999", "2020-F")));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,54 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DatasetGeneratorTest {
+    @TempDir
+    Path dir;
+
+    // A load test is only repeatable if the same settings write the same bytes
+    @Test
+    void sameSeedWritesIdenticalFiles() throws Exception {
+        for (String name : new String[] {"rows.txt", "rows.gz", "rows.bin"}) {
+            Path first = dir.resolve("a-" + name);
+            Path second = dir.resolve("b-" + name);
+            Path other = dir.resolve("c-" + name);
+            generator(42).write(first);
+            generator(42).write(second);
+            generator(43).write(other);
+            assertEquals(-1, Files.mismatch(first, second), name);
+            assertNotEquals(-1, Files.mismatch(first, other), name);
+        }
+    }
+
+    @Test
+    void rowsAreValidUnlessMalformed() {
+        List<CourseSelection> rows = generator(7).malformedRate(0).rows();
+        assertEquals(5_000, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertTrue(Validator.validate(rows.get(i), i + 1).isValid(), rows.get(i).toStorageString());
+            assertEquals(rows.get(i).toStorageString(), rows.get(i).toStorageString());
+        }
+
+        List<CourseSelection> malformed = generator(7).malformedRate(0.2).rows();
+        int invalid = 0;
+        for (int i = 0; i < malformed.size(); i++) {
+            if (!Validator.validate(malformed.get(i), i + 1).isValid()) {
+                invalid++;
+            }
+        }
+        assertTrue(invalid > 500 && invalid < 1_500, invalid + " malformed rows");
+    }
+
+    private static DatasetGenerator generator(long seed) {
+        return new DatasetGenerator().rows(5_000).seed(seed).students(500, 0.4).courses(100, 0.8);
+    }
+}
@@ -0,0 +1,166 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Saving and loading through FileHandler, in a temporary data directory
+class FileHandlerTest {
+    // Credits the one-decimal export format cannot hold; 0.04 would even round to an invalid 0.0
+    private static final double[] CREDITS = {2.25, 0.04, 3.0, 1.0 / 3};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void checkpointReloadsTheSameRowsAsTheJournal() {
+        List<CourseSelection> rows = rows();
+        FileHandler files = new FileHandler(dir.toString());
+        CourseManager manager = new CourseManager();
+        files.attachJournal(manager);
+        for (CourseSelection row : rows) {
+            assertTrue(manager.addCourseSelection(row));
+        }
+        files.closeJournal();
+        List<String> fromJournal = stored(load());
+        assertEquals(stored(rows), fromJournal);
+
+        FileHandler checkpoint = new FileHandler(dir.toString());
+        CourseManager loaded = new CourseManager();
+        checkpoint.loadInto(loaded, fraction -> { });
+        checkpoint.attachJournal(loaded);
+        assertTrue(checkpoint.saveData(loaded));
+        checkpoint.closeJournal();
+        assertEquals(fromJournal, stored(load()));
+    }
+
+    // The manifest lets a load skip validation; without it every row is validated, and both
+    // loads must agree, with only valid rows
+    @Test
+    void trustedLoadMatchesValidatingLoad() throws Exception {
+        CourseManager manager = new CourseManager();
+        assertEquals(CREDITS.length, manager.importCourseSelections(rows()));
+        FileHandler files = new FileHandler(dir.toString());
+        assertTrue(files.saveData(manager));
+        files.closeJournal();
+
+        Path manifest = dir.resolve("courses.manifest");
+        assertTrue(Files.exists(manifest));
+        CourseManager trusted = load();
+        Files.delete(manifest);
+        CourseManager validated = load();
+
+        assertEquals(stored(manager), stored(trusted));
+        assertEquals(stored(trusted), stored(validated));
+        int row = 0;
+        for (CourseSelection course : trusted.getAllCourseSelections()) {
+            assertTrue(Validator.validate(course, ++row).isValid(), course.toStorageString());
+        }
+    }
+
+    // A full delta deletes what it does not list, so a row lost in transit is gone from the replica
+    @Test
+    void deltaKeepsExactCreditsInADecimalCommaLocale() {
+        CourseManager source = new CourseManager();
+        assertEquals(CREDITS.length, source.importCourseSelections(rows()));
+        CourseManager replica = new CourseManager();
+        replica.importCourseSelections(rows().subList(0, 2));
+
+        FileHandler files = new FileHandler(dir.toString());
+        String delta = dir.resolve("full.delta").toString();
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertNotNull(files.exportDelta(source, null, delta));
+            files.importDelta(delta, replica);
+        } finally {
+            Locale.setDefault(locale);
+        }
+        assertEquals(stored(source), stored(replica));
+    }
+
+    // The export reads a snapshot, so a write made meanwhile neither waits nor shows up in the
+    // file; a cancelled export leaves no file behind
+    @Test
+    void snapshotExportIgnoresLaterWritesAndCancelDeletesTheFile() {
+        CourseManager manager = new CourseManager();
+        assertEquals(CREDITS.length, manager.importCourseSelections(rows()));
+        FileHandler files = new FileHandler(dir.toString());
+        String text = dir.resolve("all.txt").toString();
+        String binary = dir.resolve("all.bin").toString();
+        try (CourseSnapshot snapshot = manager.snapshot()) {
+            assertTrue(manager.deleteCourseSelection("100000", "CSC100", "2023-F"));
+            assertEquals(CREDITS.length, files.exportSnapshot(snapshot.getSelections(), text, null, () -> false).getRows());
+            assertNotNull(files.exportSnapshot(snapshot.getSelections(), binary, null, () -> false));
+        }
+        assertEquals(stored(rows()), stored(files.importFromFile(binary)));
+        assertEquals(CREDITS.length, files.importFromFile(text).size());
+
+        assertNull(files.exportSnapshot(rows(), text, null, () -> true));
+        assertFalse(Files.exists(dir.resolve("all.txt")));
+    }
+
+    // Rejected rows carry their file line; a file cut off part-way fails the report instead of
+    // reading as a complete import
+    @Test
+    void streamingImportNumbersRejectionsAndFailsOnAReadError() throws Exception {
+        Path text = dir.resolve("rows.txt");
+        Files.write(text, List.of(rows().get(0).toStorageString(), "", "not,a,row", rows().get(1).toStorageString()));
+        FileHandler files = new FileHandler(dir.toString());
+        CourseManager manager = new CourseManager();
+        ImportReport report = files.importStreaming(text.toString(), manager, fraction -> { }, () -> false);
+        assertFalse(report.isFailed());
+        assertEquals(2, report.getAdded());
+        assertEquals(1, report.getInvalid());
+        assertEquals(3, report.getRejections().get(0).getRow());
+
+        Path gzip = dir.resolve("rows.gz");
+        assertNotNull(files.exportSnapshot(rows(), gzip.toString(), null, () -> false));
+        byte[] bytes = Files.readAllBytes(gzip);
+        Files.write(gzip, Arrays.copyOf(bytes, bytes.length / 2));
+        report = files.importStreaming(gzip.toString(), new CourseManager(), fraction -> { }, () -> false);
+        assertTrue(report.isFailed());
+        assertTrue(report.summary().startsWith("Import stopped"), report.summary());
+    }
+
+    private CourseManager load() {
+        CourseManager manager = new CourseManager();
+        new FileHandler(dir.toString()).loadInto(manager, fraction -> { });
+        return manager;
+    }
+
+    static List<CourseSelection> rows() {
+        List<CourseSelection> rows = new ArrayList<>();
+        for (int i = 0; i < CREDITS.length; i++) {
+            rows.add(new CourseSelection("10000" + i, "Ann Lee", "CSC10" + i, "Data Structures",
+                                         "2023-F", 32, CREDITS[i], "exam"));
+        }
+        return rows;
+    }
+
+    // Rows in a fixed order, in the exact storage format
+    static List<String> stored(CourseManager manager) {
+        return stored(manager.getAllCourseSelections());
+    }
+
+    static List<String> stored(List<CourseSelection> rows) {
+        List<String> lines = new ArrayList<>();
+        for (CourseSelection row : rows) {
+            lines.add(row.toStorageString());
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+}
@@ -0,0 +1,54 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    // Buckets tile the longs without gaps: every value lies in the bucket whose bound is the
+    // first at or above it
+    @Test
+    void everyValueFallsInItsBucket() {
+        SplittableRandom random = new SplittableRandom(5);
+        long[] values = new long[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < 1_000 ? i : random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+        }
+        values[0] = Long.MAX_VALUE;
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValue(bucket) >= value, "bound below " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValue(bucket - 1) < value, "bucket too high for " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketError() {
+        SplittableRandom random = new SplittableRandom(9);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform from 1 ns to about 1 s, like real latencies
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e9));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percent : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percent / 100 * values.length) - 1];
+            long reported = histogram.percentile(percent);
+            assertTrue(reported >= exact && reported <= exact + exact * 0.016, percent + "%: " + reported + " vs " + exact);
+        }
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(Arrays.stream(values).average().getAsDouble(), histogram.getMean(), 1e-6);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentile(50));
+    }
+}
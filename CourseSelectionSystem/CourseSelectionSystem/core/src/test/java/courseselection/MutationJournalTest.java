@@ -0,0 +1,59 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MutationJournalTest {
+    @TempDir
+    Path dir;
+
+    // A crash can leave half a record at the end; reopening cuts it off so the next records replay
+    @Test
+    void reopeningCutsATornTail() throws Exception {
+        Path log = dir.resolve("journal.log");
+        List<CourseSelection> rows = FileHandlerTest.rows();
+        append(log, Mutation.add(rows.get(0)), Mutation.add(rows.get(1)));
+        long intact = Files.size(log);
+        Files.write(log, "A,123456,Torn Rec".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        append(log, Mutation.add(rows.get(2)));
+        assertTrue(Files.size(log) > intact);
+        Map<SelectionKey, CourseSelection> state = new HashMap<>();
+        assertEquals(3, MutationJournal.replay(log, state));
+        assertEquals(FileHandlerTest.stored(rows.subList(0, 3)), FileHandlerTest.stored(List.copyOf(state.values())));
+    }
+
+    // An intact last record that only lost its newline is kept, and the next one starts a new line
+    @Test
+    void reopeningTerminatesAnIntactLastLine() throws Exception {
+        Path log = dir.resolve("journal.log");
+        List<CourseSelection> rows = FileHandlerTest.rows();
+        append(log, Mutation.add(rows.get(0)), Mutation.add(rows.get(1)));
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(bytes, bytes.length - 1));
+
+        append(log, Mutation.delete(rows.get(0).getKey()), Mutation.add(rows.get(3)));
+        Map<SelectionKey, CourseSelection> state = new HashMap<>();
+        assertEquals(4, MutationJournal.replay(log, state));
+        assertEquals(FileHandlerTest.stored(List.of(rows.get(1), rows.get(3))),
+            FileHandlerTest.stored(List.copyOf(state.values())));
+    }
+
+    private static void append(Path log, Mutation... mutations) throws Exception {
+        try (MutationJournal journal = new MutationJournal(log, 0)) {
+            journal.onMutations(List.of(mutations));
+            journal.awaitDurable();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package courseselection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TaskSchedulerTest {
+
+    // A superseded task that has not reached a stopping point yet must not hold up its successor
+    @Test
+    void supersededTaskFreesItsSlot() throws Exception {
+        TaskScheduler tasks = new TaskScheduler(Runnable::run);
+        tasks.configure("view", 1, true);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondRan = new CountDownLatch(1);
+        try {
+            TaskScheduler.Task<Boolean> first = tasks.submit("view", "a",
+                () -> release.await(30, TimeUnit.SECONDS), null, null);
+            tasks.submit("view", "b", () -> {
+                secondRan.countDown();
+                return null;
+            }, null, null);
+            assertTrue(secondRan.await(10, TimeUnit.SECONDS), "second request waited for the first");
+            assertTrue(first.isCancelled());
+        } finally {
+            release.countDown();
+            tasks.shutdown(10_000);
+        }
+    }
+
+    // Work that ignores cancelRequested() cannot keep shutdown waiting past its timeout
+    @Test
+    void shutdownGivesUpAfterItsTimeout() throws Exception {
+        TaskScheduler tasks = new TaskScheduler(Runnable::run);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        tasks.submit("import", "file", () -> {
+            started.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        }, null, null);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        try {
+            assertFalse(tasks.shutdown(100));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(tasks.shutdown(10_000));
+    }
+}
@@ -1,24 +1,87 @@
 
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import java.io.File;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import courseselection.CourseColumn;
+import courseselection.CourseCursor;
+import courseselection.CourseExporter;
+import courseselection.CourseManager;
+import courseselection.CourseSelection;
+import courseselection.CourseSnapshot;
+import courseselection.CourseTotals;
+import courseselection.FileHandler;
+import courseselection.IncrementalSearch;
+import courseselection.StartupLoader;
+import courseselection.TaskScheduler;
+import courseselection.ValidationResult;
+import courseselection.Validator;
 
 public class Dashboard extends Application {
+    private static final int VIEW_PAGE_SIZE = 200;
+    // Search-as-you-type waits this long after the last keystroke and shows at most this many rows
+    private static final int SEARCH_DEBOUNCE_MILLIS = 150;
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    // Background operations; the View tab's queries share one operation because they share one output
+    private static final String SEARCH_TASK = "search";
+    private static final String VIEW_TASK = "view";
+    private static final String TOTALS_TASK = "totals";
+    private static final String IMPORT_TASK = "import";
+    private static final String EXPORT_TASK = "export";
+    private static final String ORDER_TASK = "order";
+    // How long closing the window waits for cancelled background work to stop
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
     private CourseManager courseManager;
     private String currentUser;
     private FileHandler fileHandler;
+    // Startup load still filling courseManager, or null when it was loaded up front
+    private final StartupLoader loader;
+    // All background work goes through here, and all of its results come back on the FX thread
+    private final TaskScheduler tasks = new TaskScheduler(javafx.application.Platform::runLater);
+    // Re-opens whatever the View tab is listing; set when the tab is created
+    private Runnable reloadView = () -> { };
 
     public Dashboard(CourseManager courseManager, String username) {
+        this(courseManager, new FileHandler(), username);
+    }
+
+    // Shares the caller's FileHandler so there is a single journal writer per session
+    public Dashboard(CourseManager courseManager, FileHandler fileHandler, String username) {
+        this(courseManager, fileHandler, username, null);
+    }
+
+    // Opens while the loader is still running; the tabs stay disabled until it finishes
+    public Dashboard(CourseManager courseManager, FileHandler fileHandler, String username, StartupLoader loader) {
         this.courseManager = courseManager;
         this.currentUser = username;
-        this.fileHandler = new FileHandler();
+        this.fileHandler = fileHandler;
+        this.loader = loader;
+        // A new search or view request replaces the one still running; file jobs run one at a time
+        tasks.configure(SEARCH_TASK, 1, true);
+        tasks.configure(VIEW_TASK, 1, true);
+        tasks.configure(TOTALS_TASK, 1, true);
+        tasks.configure(IMPORT_TASK, 1, false);
+        tasks.configure(EXPORT_TASK, 1, false);
+        tasks.configure(ORDER_TASK, 1, false);
     }
 
     @Override
@@ -38,11 +101,68 @@ public class Dashboard extends Application {
         tabPane.getTabs().addAll(addTab, manageTab, viewTab, importExportTab);
 
         // Set up main scene
-        Scene scene = new Scene(tabPane, 900, 650);
+        BorderPane root = new BorderPane(tabPane);
+        if (loader != null) {
+            showLoadProgress(root, tabPane, List.of(addTab, manageTab, importExportTab));
+        }
+        Scene scene = new Scene(root, 900, 650);
         primaryStage.setScene(scene);
+
+        // Fold the journal into a fresh snapshot when the session ends; a partly loaded manager
+        // would overwrite the data file with part of it, so nothing is saved then. Background
+        // imports and exports are stopped first so none is still writing during the save. One that
+        // does not stop in time cannot corrupt the save, which holds off writers, and its later
+        // writes are refused by the closed journal.
+        primaryStage.setOnCloseRequest(e -> {
+            if (!tasks.shutdown(SHUTDOWN_WAIT_MILLIS)) {
+                System.err.println("Background tasks still running at exit; saving without them");
+            }
+            if (loader == null || loader.isLoaded()) {
+                fileHandler.saveData(courseManager);
+            }
+            fileHandler.closeJournal();
+        });
         primaryStage.show();
     }
 
+    // Progress bar under the disabled tabs until the startup load finishes. After a failed load
+    // only viewing stays possible: no journal is attached, so edits would be lost, and an export
+    // would hold part of the data.
+    private void showLoadProgress(BorderPane root, TabPane tabPane, List<Tab> editingTabs) {
+        Timeline poll = null;
+        if (!loader.isDone()) {
+            ProgressBar progress = new ProgressBar(loader.getProgress());
+            HBox bar = new HBox(10, new Label("Loading saved courses..."), progress);
+            bar.setPadding(new Insets(8, 15, 8, 15));
+            root.setBottom(bar);
+            tabPane.setDisable(true);
+
+            poll = new Timeline(new KeyFrame(Duration.millis(100),
+                e -> progress.setProgress(loader.getProgress())));
+            poll.setCycleCount(Animation.INDEFINITE);
+            poll.play();
+        }
+        Timeline shownPoll = poll;
+        loader.whenDone(tasks::deliver, failure -> {
+            if (shownPoll != null) {
+                shownPoll.stop();
+            }
+            root.setBottom(null);
+            if (failure != null) {
+                editingTabs.forEach(tab -> tab.setDisable(true));
+                tabPane.getSelectionModel().select(tabPane.getTabs().stream()
+                    .filter(tab -> !tab.isDisable()).findFirst().orElse(null));
+            }
+            tabPane.setDisable(false);
+            reloadView.run();
+            if (failure != null) {
+                Utils.showErrorAlert("Load Failed",
+                    "Saved courses could not be loaded, so editing is disabled and nothing is saved on exit."
+                    + " Restart once the problem is fixed.\n" + failure);
+            }
+        });
+    }
+
     private Tab createAddTab(Stage primaryStage) {
         Tab tab = new Tab("Add Course");
         VBox layout = new VBox(10);
@@ -88,16 +208,6 @@ public class Dashboard extends Application {
         Button addButton = new Button("Add Course");
         addButton.setOnAction(e -> {
             try {
-                if (!Utils.isValidStudentId(studentIdField.getText())) {
-                    Utils.showErrorAlert("Invalid Input", "Student ID must be 6 digits");
-                    return;
-                }
-                
-                if (!Utils.isValidCourseId(courseIdField.getText())) {
-                    Utils.showErrorAlert("Invalid Input", "Course ID must be 3 letters followed by 3 numbers");
-                    return;
-                }
-
                 CourseSelection course = new CourseSelection(
                     studentIdField.getText(),
                     Utils.capitalizeWords(studentNameField.getText()),
@@ -109,6 +219,13 @@ public class Dashboard extends Application {
                     typeComboBox.getValue()
                 );
 
+                // Report every invalid field at once
+                ValidationResult validation = Validator.validate(course);
+                if (!validation.isValid()) {
+                    Utils.showErrorAlert("Invalid Input", String.join("\n", validation.getErrors()));
+                    return;
+                }
+
                 if (courseManager.addCourseSelection(course)) {
                     Utils.showInfoAlert("Success", "Course added successfully!");
                     clearFields(studentIdField, studentNameField, courseIdField, 
@@ -118,6 +235,8 @@ public class Dashboard extends Application {
                 }
             } catch (NumberFormatException ex) {
                 Utils.showErrorAlert("Error", "Please enter valid numbers for hours and credit.");
+            } catch (UncheckedIOException ex) {
+                showNotSaved(ex);
             }
         });
 
@@ -143,22 +262,18 @@ public class Dashboard extends Application {
         searchProgress.setVisible(false);
         searchProgress.setMaxSize(40, 40);
 
+        Label searchStatus = new Label();
+        IncrementalSearch search = new IncrementalSearch(courseManager, SEARCH_RESULT_LIMIT);
+        PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+        searchDelay.setOnFinished(e -> runSearch(search, searchField.getText(), false,
+            resultsList, searchProgress, searchStatus));
+        // Every keystroke restarts the delay, so a burst of typing runs one search at its end.
+        // The search operation supersedes, so a result that arrives after a newer query is dropped.
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+
         searchButton.setOnAction(e -> {
-            resultsList.getItems().clear();
-            searchProgress.setVisible(true);
-            
-            new Thread(() -> {
-                List<CourseSelection> results = courseManager.searchByStudent(searchField.getText());
-                
-                javafx.application.Platform.runLater(() -> {
-                    searchProgress.setVisible(false);
-                    if (results.isEmpty()) {
-                        Utils.showInfoAlert("Search Results", "No courses found matching your criteria");
-                    } else {
-                        resultsList.getItems().addAll(results);
-                    }
-                });
-            }).start();
+            searchDelay.stop();
+            runSearch(search, searchField.getText(), true, resultsList, searchProgress, searchStatus);
         });
 
         // Management buttons
@@ -168,14 +283,18 @@ public class Dashboard extends Application {
             if (selected != null) {
                 if (Utils.showConfirmationDialog("Confirm Delete", 
                     "Are you sure you want to delete this course selection?")) {
-                    if (courseManager.deleteCourseSelection(
-                        selected.getStudentId(), 
-                        selected.getCourseId(),
-                        selected.getSemester())) {
-                        Utils.showInfoAlert("Success", "Course deleted successfully!");
-                        resultsList.getItems().remove(selected);
-                    } else {
-                        Utils.showErrorAlert("Error", "Failed to delete course.");
+                    try {
+                        if (courseManager.deleteCourseSelection(
+                            selected.getStudentId(), 
+                            selected.getCourseId(),
+                            selected.getSemester())) {
+                            Utils.showInfoAlert("Success", "Course deleted successfully!");
+                            resultsList.getItems().remove(selected);
+                        } else {
+                            Utils.showErrorAlert("Error", "Failed to delete course.");
+                        }
+                    } catch (UncheckedIOException ex) {
+                        showNotSaved(ex);
                     }
                 }
             } else {
@@ -198,6 +317,7 @@ public class Dashboard extends Application {
         layout.getChildren().addAll(
             new Label("Search by Student ID or Name:"),
             new HBox(10, searchField, searchButton, searchProgress),
+            searchStatus,
             new Label("Results:"),
             resultsList,
             buttonBox
@@ -207,6 +327,36 @@ public class Dashboard extends Application {
         return tab;
     }
 
+    private void runSearch(IncrementalSearch search, String keyword, boolean reportEmpty,
+                           ListView<CourseSelection> resultsList, ProgressIndicator searchProgress,
+                           Label searchStatus) {
+        if (keyword.trim().isEmpty()) {
+            tasks.cancelAll(SEARCH_TASK);
+            searchProgress.setVisible(false);
+            resultsList.getItems().clear();
+            searchStatus.setText("");
+            return;
+        }
+        searchProgress.setVisible(true);
+
+        tasks.submit(SEARCH_TASK, keyword, () -> search.search(keyword), result -> {
+            searchProgress.setVisible(false);
+            List<CourseSelection> found = result.getSelections();
+            resultsList.getItems().setAll(found);
+            if (result.isTruncated()) {
+                searchStatus.setText("Showing the first " + found.size() + " matches; keep typing to narrow the search");
+            } else {
+                searchStatus.setText(found.size() + " matching courses");
+            }
+            if (reportEmpty && found.isEmpty()) {
+                Utils.showInfoAlert("Search Results", "No courses found matching your criteria");
+            }
+        }, error -> {
+            searchProgress.setVisible(false);
+            Utils.showErrorAlert("Search Failed", error.toString());
+        });
+    }
+
     private Tab createViewTab() {
         Tab tab = new Tab("View Courses");
         VBox layout = new VBox(10);
@@ -218,83 +368,156 @@ public class Dashboard extends Application {
         TextField semesterField = new TextField();
         semesterField.setPromptText("e.g., 2023-F");
         Button countBySemesterButton = new Button("Count by Semester");
-
-        // Results display
-        TextArea resultsArea = new TextArea();
-        resultsArea.setEditable(false);
-        resultsArea.setPrefHeight(500);
+        Label resultsLabel = new Label();
+
+        // Only the rows scrolled into view are materialized, a page at a time, through a CourseCursor
+        TableView<CourseSelection> resultsTable = new TableView<>();
+        resultsTable.setPrefHeight(350);
+        TableColumn<CourseSelection, Object> creditColumn =
+            viewColumn("Credit", CourseColumn.CREDIT, CourseSelection::getCredit);
+        resultsTable.getColumns().addAll(List.of(
+            viewColumn("Student ID", CourseColumn.STUDENT_ID, CourseSelection::getStudentId),
+            viewColumn("Student Name", CourseColumn.STUDENT_NAME, CourseSelection::getStudentName),
+            viewColumn("Course ID", CourseColumn.COURSE_ID, CourseSelection::getCourseId),
+            viewColumn("Course Name", CourseColumn.COURSE_NAME, CourseSelection::getCourseName),
+            viewColumn("Semester", CourseColumn.SEMESTER, CourseSelection::getSemester),
+            viewColumn("Hours", CourseColumn.HOURS, CourseSelection::getHours),
+            creditColumn,
+            viewColumn("Type", CourseColumn.TYPE, CourseSelection::getType)));
 
         // Add ProgressIndicator for potentially long operations
         ProgressIndicator viewProgress = new ProgressIndicator();
         viewProgress.setVisible(false);
         viewProgress.setMaxSize(40, 40);
 
-        viewAllButton.setOnAction(e -> {
-            resultsArea.clear();
+        // The cursor on display, or null while a semester listing is shown
+        CourseCursor[] shownCursor = {null};
+
+        // Opening a cursor may sort every row by its column, so it happens in the background
+        BiConsumer<CourseColumn, Boolean> showCursor = (column, descending) -> {
             viewProgress.setVisible(true);
-            
-            new Thread(() -> {
-                List<CourseSelection> courses = courseManager.getAllCourseSelections();
-                
-                javafx.application.Platform.runLater(() -> {
+            tasks.submit(VIEW_TASK, "cursor:" + column + ":" + descending,
+                () -> new CourseCursor(courseManager, column, descending, VIEW_PAGE_SIZE), cursor -> {
                     viewProgress.setVisible(false);
-                    if (courses.isEmpty()) {
-                        resultsArea.setText("No courses available.");
-                    } else {
-                        courses.forEach(c -> resultsArea.appendText(c.toString() + "\n\n"));
-                    }
-                });
-            }).start();
+                    // A bulk change that makes the order stale shows empty rows until it is
+                    // rebuilt in the background; requests for the same column join one rebuild
+                    cursor.setOnStale(() -> tasks.submit(ORDER_TASK, column, () -> {
+                        courseManager.prepareOrder(column);
+                        return column;
+                    }, prepared -> resultsTable.refresh(), null));
+                    shownCursor[0] = cursor;
+                    resultsTable.setItems(FXCollections.observableList(cursor));
+                    resultsLabel.setText(cursor.isEmpty() ? "No courses available." : cursor.size() + " courses");
+                }, error -> viewProgress.setVisible(false));
+        };
+
+        // Clicking a column header re-opens the cursor in that column's order instead of sorting
+        // the items in memory; a semester listing is small and keeps the default in-memory sort
+        resultsTable.setSortPolicy(table -> {
+            CourseCursor cursor = shownCursor[0];
+            if (cursor == null) {
+                return TableView.DEFAULT_SORT_POLICY.call(table);
+            }
+            CourseColumn column = null;
+            boolean descending = false;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<CourseSelection, ?> first = table.getSortOrder().get(0);
+                column = (CourseColumn) first.getUserData();
+                descending = first.getSortType() == TableColumn.SortType.DESCENDING;
+            }
+            if (cursor.getColumn() != column || cursor.isDescending() != descending) {
+                showCursor.accept(column, descending);
+            }
+            return true;
+        });
+
+        viewAllButton.setOnAction(e -> {
+            resultsTable.getSortOrder().clear();
+            showCursor.accept(null, false);
         });
 
         sortByCreditButton.setOnAction(e -> {
-            resultsArea.clear();
-            viewProgress.setVisible(true);
-            
-            new Thread(() -> {
-                List<CourseSelection> sortedCourses = courseManager.sortByCredit();
-                
-                javafx.application.Platform.runLater(() -> {
-                    viewProgress.setVisible(false);
-                    if (sortedCourses.isEmpty()) {
-                        resultsArea.setText("No courses available.");
-                    } else {
-                        sortedCourses.forEach(c -> resultsArea.appendText(c.toString() + "\n\n"));
-                    }
-                });
-            }).start();
+            creditColumn.setSortType(TableColumn.SortType.ASCENDING);
+            resultsTable.getSortOrder().setAll(List.of(creditColumn));
+            showCursor.accept(CourseColumn.CREDIT, false);
         });
 
+        // Refresh the open listing after bulk changes, e.g. a finished import
+        reloadView = () -> {
+            CourseCursor cursor = shownCursor[0];
+            if (cursor != null) {
+                showCursor.accept(cursor.getColumn(), cursor.isDescending());
+            }
+        };
+
         countBySemesterButton.setOnAction(e -> {
-            resultsArea.clear();
             viewProgress.setVisible(true);
+            String semester = semesterField.getText();
             
-            new Thread(() -> {
-                int count = courseManager.countCoursesBySemester(semesterField.getText());
-                List<CourseSelection> semesterCourses = courseManager.getAllCourseSelections().stream()
-                    .filter(c -> c.getSemester().equalsIgnoreCase(semesterField.getText()))
-                    .toList();
-                
-                javafx.application.Platform.runLater(() -> {
+            // The count is taken from the same read as the list so the two always agree
+            tasks.submit(VIEW_TASK, "semester:" + semester, () -> courseManager.getCoursesBySemester(semester),
+                semesterCourses -> {
                     viewProgress.setVisible(false);
-                    resultsArea.setText("Number of courses in semester " + semesterField.getText() + 
-                                      ": " + count + "\n\n");
-                    semesterCourses.forEach(c -> resultsArea.appendText(c.toString() + "\n\n"));
-                });
-            }).start();
+                    shownCursor[0] = null;
+                    resultsTable.setItems(FXCollections.observableArrayList(semesterCourses));
+                    resultsTable.sort();
+                    resultsLabel.setText("Number of courses in semester " + semester + 
+                                      ": " + semesterCourses.size());
+                }, error -> viewProgress.setVisible(false));
+        });
+
+        // Totals per group come from the aggregates CourseManager maintains on every change
+        ComboBox<CourseTotals.GroupBy> groupByBox = new ComboBox<>();
+        groupByBox.getItems().setAll(CourseTotals.GroupBy.values());
+        groupByBox.setValue(CourseTotals.GroupBy.STUDENT_SEMESTER);
+        Button totalsButton = new Button("Show Totals");
+        TableView<CourseTotals> totalsTable = new TableView<>();
+        totalsTable.setPrefHeight(200);
+        totalsTable.getColumns().addAll(List.of(
+            totalsColumn("Group", CourseTotals::getGroup),
+            totalsColumn("Courses", CourseTotals::getCount),
+            totalsColumn("Credits", CourseTotals::getCreditSum),
+            totalsColumn("Hours", CourseTotals::getHoursSum)));
+
+        totalsButton.setOnAction(e -> {
+            viewProgress.setVisible(true);
+            CourseTotals.GroupBy groupBy = groupByBox.getValue();
+            tasks.submit(TOTALS_TASK, groupBy, () -> courseManager.totalsBy(groupBy), groups -> {
+                viewProgress.setVisible(false);
+                totalsTable.setItems(FXCollections.observableArrayList(groups));
+            }, error -> viewProgress.setVisible(false));
         });
 
         layout.getChildren().addAll(
             new HBox(10, viewAllButton, sortByCreditButton, viewProgress),
             new HBox(10, new Label("Semester:"), semesterField, countBySemesterButton),
-            new Label("Results:"),
-            resultsArea
+            resultsLabel,
+            resultsTable,
+            new HBox(10, new Label("Totals by:"), groupByBox, totalsButton),
+            totalsTable
         );
 
         tab.setContent(layout);
         return tab;
     }
 
+    private static TableColumn<CourseTotals, Object> totalsColumn(String title, Function<CourseTotals, Object> value) {
+        TableColumn<CourseTotals, Object> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+
+    // A results column that sorts by the given data-layer column
+    private static TableColumn<CourseSelection, Object> viewColumn(String title, CourseColumn column,
+                                                                   Function<CourseSelection, Object> value) {
+        TableColumn<CourseSelection, Object> tableColumn = new TableColumn<>(title);
+        tableColumn.setUserData(column);
+        // Rows past the end of a cursor whose table shrank read as null
+        tableColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(
+            cell.getValue() == null ? null : value.apply(cell.getValue())));
+        return tableColumn;
+    }
+
     private Tab createImportExportTab(Stage primaryStage) {
         Tab tab = new Tab("Import/Export");
         VBox layout = new VBox(15);
@@ -309,64 +532,92 @@ public class Dashboard extends Application {
         ioProgress.setVisible(false);
         ioProgress.setMaxSize(40, 40);
 
+        Button cancelImportButton = new Button("Cancel");
+        cancelImportButton.setVisible(false);
+        AtomicBoolean importCancelled = new AtomicBoolean(false);
+
         importButton.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Select Course Data File");
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+            fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text Files", "*.txt"),
+                new FileChooser.ExtensionFilter("Binary Course Files", "*.bin"));
             File file = fileChooser.showOpenDialog(primaryStage);
             
             if (file != null) {
+                importCancelled.set(false);
+                ioProgress.setProgress(0);
                 ioProgress.setVisible(true);
+                importButton.setDisable(true);
+                cancelImportButton.setVisible(true);
                 
-                new Thread(() -> {
-                    List<CourseSelection> imported = fileHandler.importFromFile(file.getAbsolutePath());
-                    int added = courseManager.importCourseSelections(imported);
-                    
-                    javafx.application.Platform.runLater(() -> {
-                        ioProgress.setVisible(false);
-                        Utils.showInfoAlert("Import Complete", 
-                            "Successfully imported " + added + " courses.\n" +
-                            (imported.size() - added) + " duplicates were skipped.");
+                // Streamed in bounded batches; the indicator shows the fraction of the file read.
+                // Cancelling is cooperative so the report of the rows already imported still arrives;
+                // closing the window cancels it the same way, at the next batch.
+                tasks.submit(IMPORT_TASK, file.getAbsolutePath(),
+                    () -> fileHandler.importStreaming(file.getAbsolutePath(), courseManager,
+                        fraction -> tasks.deliver(() -> ioProgress.setProgress(fraction)),
+                        () -> importCancelled.get() || TaskScheduler.cancelRequested()),
+                    report -> {
+                        // One summary for the whole file instead of an alert per bad row
+                        finishImport(ioProgress, importButton, cancelImportButton);
+                        reloadView.run();
+                        if (report.isFailed()) {
+                            Utils.showErrorAlert("Import Failed", report.summary());
+                        } else {
+                            Utils.showInfoAlert(report.isCancelled() ? "Import Cancelled" : "Import Complete",
+                                report.summary());
+                        }
+                    }, error -> {
+                        // Batches committed before the failure stay imported
+                        finishImport(ioProgress, importButton, cancelImportButton);
+                        reloadView.run();
+                        Utils.showErrorAlert("Import Failed", error.toString());
                     });
-                }).start();
             }
         });
 
+        cancelImportButton.setOnAction(e -> importCancelled.set(true));
+
         // Export section
         Label exportLabel = new Label("Export All Courses to File:");
         Button exportButton = new Button("Browse and Export");
         exportButton.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Save Course Data");
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+            fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text Files", "*.txt"),
+                new FileChooser.ExtensionFilter("Compressed Text Files", "*.gz"),
+                new FileChooser.ExtensionFilter("Binary Course Files", "*.bin"));
             File file = fileChooser.showSaveDialog(primaryStage);
             
             if (file != null) {
                 ioProgress.setVisible(true);
                 
-                new Thread(() -> {
-                    boolean success = fileHandler.exportToFile(
-                        courseManager.getAllCourseSelections(), 
-                        file.getAbsolutePath());
-                    
-                    javafx.application.Platform.runLater(() -> {
+                // Exporting the same file twice while the first export runs only writes it once.
+                // Rows are streamed from a snapshot one at a time, in constant memory.
+                tasks.submit(EXPORT_TASK, file.getAbsolutePath(),
+                    () -> exportAll(file.getAbsolutePath(),
+                        fraction -> tasks.deliver(() -> ioProgress.setProgress(fraction))),
+                    summary -> {
                         ioProgress.setVisible(false);
-                        if (success) {
+                        ioProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+                        if (summary != null) {
                             Utils.showInfoAlert("Export Complete", 
-                                "All courses exported successfully to:\n" + file.getAbsolutePath());
+                                "All courses exported successfully to:\n" + file.getAbsolutePath() + "\n" + summary);
                         } else {
                             Utils.showErrorAlert("Export Failed", 
                                 "Failed to export courses to the selected file.");
                         }
+                    }, error -> {
+                        ioProgress.setVisible(false);
+                        ioProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
                     });
-                }).start();
             }
         });
 
         layout.getChildren().addAll(
-            importLabel, new HBox(10, importButton, ioProgress),
+            importLabel, new HBox(10, importButton, ioProgress, cancelImportButton),
             new Separator(),
             exportLabel, exportButton
         );
@@ -375,6 +626,25 @@ public class Dashboard extends Application {
         return tab;
     }
 
+    // Rows and bytes written, or null if the export failed or was cancelled; progress receives
+    // the fraction of rows. The rows come from a snapshot, so edits go on while the file is
+    // written and do not show up in it.
+    private String exportAll(String path, DoubleConsumer progress) {
+        try (CourseSnapshot snapshot = courseManager.snapshot()) {
+            double total = Math.max(1, snapshot.size());
+            CourseExporter.Result result = fileHandler.exportSnapshot(snapshot.getSelections(), path,
+                (rows, bytes) -> progress.accept(rows / total), TaskScheduler::cancelRequested);
+            return result == null ? null : String.format("%,d rows, %,d bytes", result.getRows(), result.getBytes());
+        }
+    }
+
+    private static void finishImport(ProgressIndicator ioProgress, Button importButton, Button cancelImportButton) {
+        ioProgress.setVisible(false);
+        ioProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        importButton.setDisable(false);
+        cancelImportButton.setVisible(false);
+    }
+
     private void showModifyDialog(CourseSelection course, ListView<CourseSelection> listView, Stage primaryStage) {
         Dialog<CourseSelection> dialog = new Dialog<>();
         dialog.setTitle("Modify Course");
@@ -426,12 +696,7 @@ public class Dashboard extends Application {
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
                 try {
-                    if (!Utils.isValidCourseId(courseIdField.getText())) {
-                        Utils.showErrorAlert("Invalid Input", "Course ID must be 3 letters followed by 3 numbers");
-                        return null;
-                    }
-
-                    return new CourseSelection(
+                    CourseSelection modified = new CourseSelection(
                         studentIdField.getText(),
                         Utils.capitalizeWords(studentNameField.getText()),
                         courseIdField.getText().toUpperCase(),
@@ -441,6 +706,13 @@ public class Dashboard extends Application {
                         Double.parseDouble(creditField.getText()),
                         typeComboBox.getValue()
                     );
+
+                    ValidationResult validation = Validator.validate(modified);
+                    if (!validation.isValid()) {
+                        Utils.showErrorAlert("Invalid Input", String.join("\n", validation.getErrors()));
+                        return null;
+                    }
+                    return modified;
                 } catch (NumberFormatException e) {
                     Utils.showErrorAlert("Error", "Please enter valid numbers for hours and credit.");
                     return null;
@@ -452,21 +724,31 @@ public class Dashboard extends Application {
         // Handle result
         dialog.showAndWait().ifPresent(modifiedCourse -> {
             if (modifiedCourse != null) {
-                if (courseManager.modifyCourseSelection(
-                    course.getStudentId(), 
-                    course.getCourseId(),
-                    course.getSemester(),
-                    modifiedCourse)) {
-                    Utils.showInfoAlert("Success", "Course modified successfully!");
-                    listView.getItems().remove(course);
-                    listView.getItems().add(modifiedCourse);
-                } else {
-                    Utils.showErrorAlert("Error", "Failed to modify course. Possible duplicate entry.");
+                try {
+                    if (courseManager.modifyCourseSelection(
+                        course.getStudentId(), 
+                        course.getCourseId(),
+                        course.getSemester(),
+                        modifiedCourse)) {
+                        Utils.showInfoAlert("Success", "Course modified successfully!");
+                        listView.getItems().remove(course);
+                        listView.getItems().add(modifiedCourse);
+                    } else {
+                        Utils.showErrorAlert("Error", "Failed to modify course. Possible duplicate entry.");
+                    }
+                } catch (UncheckedIOException ex) {
+                    showNotSaved(ex);
                 }
             }
         });
     }
 
+    // The journal refused a change (it was undone) or could not sync it; either way later
+    // changes are refused until the application is restarted
+    private void showNotSaved(UncheckedIOException ex) {
+        Utils.showErrorAlert("Change Not Saved", ex.getMessage() + ":\n" + ex.getCause().getMessage());
+    }
+
     private void clearFields(TextField... fields) {
         for (TextField field : fields) {
             field.clear();
@@ -476,4 +758,4 @@ public class Dashboard extends Application {
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+}
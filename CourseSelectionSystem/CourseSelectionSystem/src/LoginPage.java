@@ -18,6 +18,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import courseselection.CourseManager;
+import courseselection.FileHandler;
+import courseselection.StartupLoader;
 
 public class LoginPage extends Application {
     private static final String CREDENTIALS_FILE = "data/credentials.txt";
@@ -26,12 +29,14 @@ public class LoginPage extends Application {
     private Map<String, String> credentials = new HashMap<>();
     private CourseManager courseManager;
     private FileHandler fileHandler;
+    private StartupLoader loader;
 
     public LoginPage() {
         this.fileHandler = new FileHandler();
         this.courseManager = new CourseManager();
         loadCredentials();
-        this.courseManager.importCourseSelections(fileHandler.loadData());
+        // The login window opens at once; the dashboard waits for whatever is still loading
+        this.loader = StartupLoader.start(fileHandler, courseManager);
     }
 
     @Override
@@ -102,7 +107,7 @@ public class LoginPage extends Application {
                     if (authenticate(username, password)) {
                         showMessage(messageLabel, "Login successful!", Color.GREEN);
                         
-                        Dashboard dashboard = new Dashboard(courseManager, username);
+                        Dashboard dashboard = new Dashboard(courseManager, fileHandler, username, loader);
                         Stage dashboardStage = new Stage();
                         dashboard.start(dashboardStage);
                         
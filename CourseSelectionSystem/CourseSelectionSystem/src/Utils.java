@@ -8,7 +8,9 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.StageStyle;
 import java.util.Optional;
-import java.util.function.Predicate;
+import courseselection.CourseSelection;
+import courseselection.Normalizer;
+import courseselection.Validator;
 
 public class Utils {
 
@@ -57,48 +59,46 @@ public class Utils {
         return dialog.showAndWait();
     }
 
-    // Validation methods
+    // Validation methods; pure checks delegating to Validator, callers decide how to report failures
     public static boolean isValidStudentId(String id) {
-        return validateString(id, "\\d{6}", "Student ID must be 6 digits");
+        return Validator.isValidStudentId(id);
     }
 
     public static boolean isValidCourseId(String id) {
-        return validateString(id, "[A-Za-z]{3}\\d{3}", "Course ID must be 3 letters followed by 3 digits");
+        return Validator.isValidCourseId(id);
     }
 
     public static boolean isValidSemester(String semester) {
-        return validateString(semester, "\\d{4}-[FSfs]", "Semester must be in YYYY-F or YYYY-S format");
+        return Validator.isValidSemester(semester);
     }
 
     public static boolean isValidCourseType(String type) {
-        return validateString(type, "(?i)exam|check", "Course type must be 'exam' or 'check'");
+        return Validator.isValidCourseType(type);
+    }
+
+    public static boolean isValidName(String name) {
+        return Validator.isValidName(name);
+    }
+
+    public static boolean isValidCourseName(String name) {
+        return Validator.isValidCourseName(name);
     }
 
     public static boolean isValidCredit(double credit) {
-        return validateNumber(credit, d -> d > 0, "Credit must be positive");
+        return Validator.isValidCredit(credit);
     }
 
     public static boolean isValidHours(int hours) {
-        return validateNumber(hours, h -> h > 0, "Hours must be positive");
+        return Validator.isValidHours(hours);
     }
 
     // String manipulation
     public static String capitalizeWords(String str) {
-        if (str == null || str.isEmpty()) return str;
-        
-        StringBuilder result = new StringBuilder();
-        for (String word : str.split("\\s+")) {
-            if (!word.isEmpty()) {
-                result.append(Character.toUpperCase(word.charAt(0)))
-                     .append(word.substring(1).toLowerCase())
-                     .append(" ");
-            }
-        }
-        return result.toString().trim();
+        return Normalizer.capitalizeWords(str);
     }
 
     public static String cleanString(String str) {
-        return str != null ? str.trim().replaceAll("\\s+", " ") : null;
+        return Normalizer.clean(str);
     }
 
     public static String formatCourseString(CourseSelection course) {
@@ -133,22 +133,6 @@ public class Utils {
         return alert;
     }
 
-    private static boolean validateString(String input, String regex, String errorMessage) {
-        if (input == null || !input.matches(regex)) {
-            showErrorAlert("Validation Error", errorMessage);
-            return false;
-        }
-        return true;
-    }
-
-    private static <T extends Number> boolean validateNumber(T number, Predicate<T> validator, String errorMessage) {
-        if (number == null || !validator.test(number)) {
-            showErrorAlert("Validation Error", errorMessage);
-            return false;
-        }
-        return true;
-    }
-
     // Color utilities
     public static String toHexString(Color color) {
         return String.format("#%02X%02X%02X",
@@ -0,0 +1,337 @@
+package courseselection;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+// Generational backups of one file in a content-addressed chunk store.
+// The file is cut into variable-size chunks with a gear rolling hash, so an edit only
+// changes the chunks around it; each chunk is stored once under its SHA-256 in chunks/,
+// and each generation is a manifest in manifests/ listing the chunks that rebuild the file.
+// Manifest format: a header line "size,lastModifiedMillis,createdMillis", then "sha256hex,length".
+public class BackupStore {
+    private static final int MIN_CHUNK = 2 << 10;
+    private static final int MAX_CHUNK = 64 << 10;
+    // A cut point on average every 8 KB past the minimum. The top bits are tested because each
+    // byte shifts left, so they depend on the last 64 bytes while the low bits see only a few.
+    private static final long CUT_MASK = ((1L << 13) - 1) << 51;
+    private static final long[] GEAR = new long[256];
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final Path chunkDir;
+    private final Path manifestDir;
+    private final int keepGenerations;
+
+    public BackupStore(Path root, int keepGenerations) throws IOException {
+        this.chunkDir = root.resolve("chunks");
+        this.manifestDir = root.resolve("manifests");
+        this.keepGenerations = Math.max(1, keepGenerations);
+        Files.createDirectories(chunkDir);
+        Files.createDirectories(manifestDir);
+    }
+
+    // Record the file as a new generation, writing only chunks the store does not hold yet.
+    // Returns the new generation, or the latest one when the file has not changed since.
+    public long backup(Path source) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        List<Long> generations = listGenerations();
+        long latest = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+
+        Manifest previous = latest > 0 ? readManifest(latest) : null;
+        if (previous != null && previous.size == size && previous.modified == modified) {
+            return latest;
+        }
+
+        Manifest manifest = new Manifest(size, modified, System.currentTimeMillis());
+        try (InputStream in = Files.newInputStream(source)) {
+            chunk(in, (bytes, length) -> {
+                String id = storeChunk(bytes, length);
+                manifest.ids.add(id);
+                manifest.lengths.add(length);
+            });
+        }
+        if (previous != null && previous.ids.equals(manifest.ids)) {
+            return latest;
+        }
+
+        long generation = latest + 1;
+        writeManifest(generation, manifest);
+        prune(generations, generation);
+        return generation;
+    }
+
+    // Rebuild a generation into a temporary sibling of target, then move it over target
+    // atomically, so a crash or a damaged chunk never leaves a half-restored file. The leading
+    // chunks target already holds are copied across unchanged instead of being reassembled,
+    // and every chunk read from the store is checked against its SHA-256 first.
+    public boolean restore(long generation, Path target) throws IOException {
+        Manifest manifest = readManifest(generation);
+        if (manifest == null) {
+            return false;
+        }
+
+        long keep = 0;
+        int firstChanged = 0;
+        if (Files.exists(target)) {
+            List<String> current = new ArrayList<>();
+            try (InputStream in = Files.newInputStream(target)) {
+                chunk(in, (bytes, length) -> current.add(digest(bytes, length)));
+            }
+            while (firstChanged < manifest.ids.size() && firstChanged < current.size()
+                   && manifest.ids.get(firstChanged).equals(current.get(firstChanged))) {
+                keep += manifest.lengths.get(firstChanged);
+                firstChanged++;
+            }
+            if (firstChanged == manifest.ids.size() && Files.size(target) == manifest.size) {
+                return true;
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".restore.tmp");
+        boolean moved = false;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (keep > 0) {
+                    try (FileChannel in = FileChannel.open(target, StandardOpenOption.READ)) {
+                        for (long copied = 0; copied < keep; ) {
+                            copied += in.transferTo(copied, keep - copied, out);
+                        }
+                    }
+                }
+                out.position(keep);
+                for (int i = firstChanged; i < manifest.ids.size(); i++) {
+                    String id = manifest.ids.get(i);
+                    byte[] bytes = Files.readAllBytes(chunkPath(id));
+                    if (bytes.length != manifest.lengths.get(i) || !digest(bytes, bytes.length).equals(id)) {
+                        throw new IOException("Backup chunk " + id + " of generation " + generation + " is damaged");
+                    }
+                    ByteBuffer chunk = ByteBuffer.wrap(bytes);
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+                if (out.size() != manifest.size) {
+                    throw new IOException("Restored " + out.size() + " bytes, expected " + manifest.size);
+                }
+                out.force(true);
+            }
+            Files.setLastModifiedTime(temp, FileTime.fromMillis(manifest.modified));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return true;
+    }
+
+    // Generations still on disk, oldest first
+    public List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(manifestDir, "*" + MANIFEST_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(0, name.length() - MANIFEST_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    public long latestGeneration() throws IOException {
+        List<Long> generations = listGenerations();
+        return generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+    }
+
+    private interface ChunkSink {
+        void accept(byte[] bytes, int length) throws IOException;
+    }
+
+    // Content-defined chunking: cut where the masked bits of the rolling hash are zero,
+    // never below MIN_CHUNK and never above MAX_CHUNK
+    private static void chunk(InputStream in, ChunkSink sink) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        byte[] chunk = new byte[MAX_CHUNK];
+        int length = 0;
+        long hash = 0;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                chunk[length++] = b;
+                hash = (hash << 1) + GEAR[b & 0xFF];
+                if ((length >= MIN_CHUNK && (hash & CUT_MASK) == 0) || length == MAX_CHUNK) {
+                    sink.accept(chunk, length);
+                    length = 0;
+                    hash = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            sink.accept(chunk, length);
+        }
+    }
+
+    // Write a chunk under its digest unless it is already stored
+    private String storeChunk(byte[] bytes, int length) throws IOException {
+        String id = digest(bytes, length);
+        Path path = chunkPath(id);
+        if (!Files.exists(path)) {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(id + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return id;
+    }
+
+    // Two-character fan-out keeps directories small
+    private Path chunkPath(String id) {
+        return chunkDir.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private Path manifestPath(long generation) {
+        return manifestDir.resolve(generation + MANIFEST_SUFFIX);
+    }
+
+    // Drop generations beyond the retention limit, then chunks no remaining manifest uses
+    private void prune(List<Long> older, long newest) throws IOException {
+        int excess = older.size() + 1 - keepGenerations;
+        if (excess <= 0) {
+            return;
+        }
+        for (int i = 0; i < excess; i++) {
+            Files.deleteIfExists(manifestPath(older.get(i)));
+        }
+
+        Set<String> live = new HashSet<>();
+        for (long generation : older.subList(excess, older.size())) {
+            Manifest manifest = readManifest(generation);
+            if (manifest != null) live.addAll(manifest.ids);
+        }
+        Manifest latest = readManifest(newest);
+        if (latest != null) live.addAll(latest.ids);
+
+        List<Path> unused = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(chunkDir, 2)) {
+            files.filter(Files::isRegularFile)
+                 .filter(file -> !live.contains(file.getFileName().toString()))
+                 .forEach(unused::add);
+        }
+        for (Path file : unused) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void writeManifest(long generation, Manifest manifest) throws IOException {
+        Path path = manifestPath(generation);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(manifest.size + "," + manifest.modified + "," + manifest.created);
+            writer.newLine();
+            for (int i = 0; i < manifest.ids.size(); i++) {
+                writer.write(manifest.ids.get(i) + "," + manifest.lengths.get(i));
+                writer.newLine();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Null when the generation does not exist or its manifest is unreadable
+    private Manifest readManifest(long generation) throws IOException {
+        Path path = manifestPath(generation);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] header = lines.get(0).split(",");
+            Manifest manifest = new Manifest(Long.parseLong(header[0]), Long.parseLong(header[1]),
+                                             Long.parseLong(header[2]));
+            for (int i = 1; i < lines.size(); i++) {
+                String line = lines.get(i);
+                int comma = line.indexOf(',');
+                manifest.ids.add(line.substring(0, comma));
+                manifest.lengths.add(Integer.parseInt(line.substring(comma + 1)));
+            }
+            return manifest;
+        } catch (RuntimeException e) {
+            System.err.println("Unreadable backup manifest: " + path);
+            return null;
+        }
+    }
+
+    private static String digest(byte[] bytes, int length) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(bytes, 0, length);
+            byte[] hash = sha.digest();
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static final class Manifest {
+        final long size;
+        final long modified;
+        final long created;
+        final List<String> ids = new ArrayList<>();
+        final List<Integer> lengths = new ArrayList<>();
+
+        Manifest(long size, long modified, long created) {
+            this.size = size;
+            this.modified = modified;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Per-row outcome of a bulk change (deleteWhere, updateWhere, applyBatch), in the order the
+// rows were processed, with the key each outcome refers to
+public class BatchReport {
+    public enum Outcome {
+        APPLIED,
+        // The key to delete or modify does not exist
+        NOT_FOUND,
+        // The new key is already taken by another row
+        DUPLICATE,
+        // The new record fails validation
+        INVALID,
+        // Not applied because the all-or-nothing batch it belongs to failed
+        ABORTED
+    }
+
+    private final List<SelectionKey> keys = new ArrayList<>();
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private boolean committed = true;
+
+    public void record(SelectionKey key, Outcome outcome) {
+        keys.add(key);
+        outcomes.add(outcome);
+    }
+
+    // Turn every APPLIED outcome into ABORTED after the batch was rolled back
+    public void markAborted() {
+        committed = false;
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (outcomes.get(i) == Outcome.APPLIED) {
+                outcomes.set(i, Outcome.ABORTED);
+            }
+        }
+    }
+
+    // False when an all-or-nothing batch was rolled back
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public int size() {
+        return outcomes.size();
+    }
+
+    public SelectionKey getKey(int index) {
+        return keys.get(index);
+    }
+
+    public Outcome getOutcome(int index) {
+        return outcomes.get(index);
+    }
+
+    public int count(Outcome outcome) {
+        int count = 0;
+        for (Outcome o : outcomes) {
+            if (o == outcome) count++;
+        }
+        return count;
+    }
+
+    public int getApplied() {
+        return count(Outcome.APPLIED);
+    }
+
+    // One human-readable summary for the whole batch
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        if (!committed) {
+            text.append("The batch was rolled back; nothing was changed.\n");
+        }
+        int[] counts = new int[Outcome.values().length];
+        for (Outcome o : outcomes) {
+            counts[o.ordinal()]++;
+        }
+        text.append(counts[Outcome.APPLIED.ordinal()]).append(" rows changed");
+        for (Outcome o : Arrays.asList(Outcome.NOT_FOUND, Outcome.DUPLICATE, Outcome.INVALID, Outcome.ABORTED)) {
+            if (counts[o.ordinal()] > 0) {
+                text.append(", ").append(counts[o.ordinal()]).append(' ')
+                    .append(o.name().toLowerCase().replace('_', ' '));
+            }
+        }
+        return text.append('.').toString();
+    }
+}
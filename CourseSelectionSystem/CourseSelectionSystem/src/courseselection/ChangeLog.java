@@ -0,0 +1,77 @@
+package courseselection;
+
+import java.util.Arrays;
+
+// Packed keys touched by each committed write, in commit order, for CourseManager.changesSince.
+// Only keys are logged; the current state of a key is read from the store when a delta is built.
+// At most capacity entries are kept: when the log is full its older half is dropped and the
+// floor moves up to the newest version dropped, so covers() tells whether a delta since a given
+// version can still be built from the log.
+public final class ChangeLog {
+    private final int capacity;
+    private long[] versions = new long[16];
+    private long[] keys = new long[16];
+    private int size = 0;
+    // Every change made after this version is still in the log
+    private long floor = 0;
+
+    public ChangeLog(int capacity) {
+        this.capacity = Math.max(2, capacity);
+    }
+
+    // Versions must not decrease from one call to the next
+    public void record(long version, long key) {
+        if (size == capacity) {
+            int dropped = size / 2;
+            floor = versions[dropped - 1];
+            System.arraycopy(versions, dropped, versions, 0, size - dropped);
+            System.arraycopy(keys, dropped, keys, 0, size - dropped);
+            size -= dropped;
+        }
+        if (size == versions.length) {
+            int grown = (int) Math.min(capacity, (long) size * 2);
+            versions = Arrays.copyOf(versions, grown);
+            keys = Arrays.copyOf(keys, grown);
+        }
+        versions[size] = version;
+        keys[size] = key;
+        size++;
+    }
+
+    // Forget every change up to and including version, e.g. after a bulk load that was not logged
+    public void clear(long version) {
+        size = 0;
+        floor = Math.max(floor, version);
+    }
+
+    public boolean covers(long version) {
+        return version >= floor;
+    }
+
+    // Distinct keys changed after version, in the order of their first change since then
+    public long[] keysSince(long version) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (versions[mid] <= version) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        LongIntMap seen = new LongIntMap(size - lo);
+        long[] changed = new long[size - lo];
+        int count = 0;
+        for (int i = lo; i < size; i++) {
+            if (seen.put(keys[i], count) == LongIntMap.NO_VALUE) {
+                changed[count++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    public int size() {
+        return size;
+    }
+}
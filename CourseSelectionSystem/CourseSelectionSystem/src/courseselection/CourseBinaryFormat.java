@@ -0,0 +1,323 @@
+package courseselection;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Compact binary alternative to the comma-separated course file.
+//
+//   header   "CSEL" magic, u16 version, u16 flags
+//   pages    u8 type ('D' dictionary, 'R' rows), i32 entries, i32 payload bytes, payload, i32 crc32
+//            dictionary payload: per string a varint byte length and its UTF-8 bytes;
+//              entries are numbered from 1 across all dictionary pages, 0 stands for null
+//            rows payload: per row varint ids of studentId, studentName, courseId, courseName,
+//              semester and type, then i32 hours and f64 credit
+//   footer   u8 'F', i64 rows, i32 dictionary entries, i32 pages, i32 crc32 of the page crcs, "LESC"
+//
+// Every string is stored once however many rows repeat it, numbers are never reparsed from
+// text, and a truncated or damaged file is rejected instead of loading partially.
+public final class CourseBinaryFormat {
+    private static final int MAGIC = 0x4353454C;        // "CSEL"
+    private static final int FOOTER_MAGIC = 0x4C455343; // "LESC"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int FOOTER_SIZE = 1 + 8 + 4 + 4 + 4 + 4;
+    private static final byte DICTIONARY_PAGE = 'D';
+    private static final byte ROW_PAGE = 'R';
+    private static final byte FOOTER = 'F';
+    private static final int PAGE_HEADER_SIZE = 1 + 4 + 4;
+    private static final int MIN_ROW_BYTES = 6 + 4 + 8;
+    private static final int ENTRIES_PER_PAGE = 1 << 16;
+
+    private CourseBinaryFormat() {
+    }
+
+    // True when the file starts with the binary format's magic number
+    public static boolean isBinary(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(4);
+            return head.length == 4 && ByteBuffer.wrap(head).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void write(List<CourseSelection> courses, Path path) throws IOException {
+        // Dictionary in first-use order
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (CourseSelection course : courses) {
+            intern(course.getStudentId(), ids, dictionary);
+            intern(course.getStudentName(), ids, dictionary);
+            intern(course.getCourseId(), ids, dictionary);
+            intern(course.getCourseName(), ids, dictionary);
+            intern(course.getSemester(), ids, dictionary);
+            intern(course.getType(), ids, dictionary);
+        }
+
+        try (OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+            DataOutputStream payload = new DataOutputStream(bytes);
+            CRC32 pageCrcs = new CRC32();
+            int pages = 0;
+
+            for (int from = 0; from < dictionary.size(); from += ENTRIES_PER_PAGE) {
+                int to = Math.min(dictionary.size(), from + ENTRIES_PER_PAGE);
+                for (int i = from; i < to; i++) {
+                    byte[] utf8 = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+                    writeVarint(payload, utf8.length);
+                    payload.write(utf8);
+                }
+                writePage(out, DICTIONARY_PAGE, to - from, bytes, pageCrcs);
+                pages++;
+            }
+
+            // Iterated rather than indexed, so lists without fast random access stay linear
+            Iterator<CourseSelection> rows = courses.iterator();
+            for (int from = 0; from < courses.size(); from += ENTRIES_PER_PAGE) {
+                int to = Math.min(courses.size(), from + ENTRIES_PER_PAGE);
+                for (int i = from; i < to; i++) {
+                    CourseSelection course = rows.next();
+                    writeVarint(payload, id(course.getStudentId(), ids));
+                    writeVarint(payload, id(course.getStudentName(), ids));
+                    writeVarint(payload, id(course.getCourseId(), ids));
+                    writeVarint(payload, id(course.getCourseName(), ids));
+                    writeVarint(payload, id(course.getSemester(), ids));
+                    writeVarint(payload, id(course.getType(), ids));
+                    payload.writeInt(course.getHours());
+                    payload.writeDouble(course.getCredit());
+                }
+                writePage(out, ROW_PAGE, to - from, bytes, pageCrcs);
+                pages++;
+            }
+
+            out.writeByte(FOOTER);
+            out.writeLong(courses.size());
+            out.writeInt(dictionary.size());
+            out.writeInt(pages);
+            out.writeInt((int) pageCrcs.getValue());
+            out.writeInt(FOOTER_MAGIC);
+        }
+    }
+
+    // Receives the rows of one page at a time; returning false stops the read
+    public interface PageConsumer {
+        boolean accept(List<CourseSelection> rows, long bytesRead, long totalRows) throws IOException;
+    }
+
+    // Every row of the file, in file order; any inconsistency fails the whole read
+    public static List<CourseSelection> read(Path path) throws IOException {
+        List<CourseSelection> courses = new ArrayList<>();
+        readPages(path, (rows, bytesRead, totalRows) -> {
+            courses.addAll(rows);
+            return true;
+        });
+        return courses;
+    }
+
+    // Stream the rows page by page, so memory holds the dictionary and one page of at most
+    // ENTRIES_PER_PAGE rows instead of the whole file. Each page is checksummed before its rows
+    // are handed over, but the footer totals can only be confirmed at the end, so a damaged file
+    // may fail after earlier pages were delivered. Returns false when the consumer stopped early.
+    public static boolean readPages(Path path, PageConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + FOOTER_SIZE) {
+                throw corrupt(path, "unexpected size " + size);
+            }
+            try {
+                return decode(channel, size, path, consumer);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw corrupt(path, e.getMessage() != null ? e.getMessage() : "truncated page");
+            }
+        }
+    }
+
+    private static boolean decode(FileChannel channel, long size, Path path, PageConsumer consumer)
+            throws IOException {
+        ByteBuffer header = readAt(channel, 0, ByteBuffer.allocate(HEADER_SIZE), path);
+        if (header.getInt(0) != MAGIC) throw corrupt(path, "bad magic");
+        if (header.getShort(4) != VERSION) throw corrupt(path, "unsupported version " + header.getShort(4));
+
+        long footer = size - FOOTER_SIZE;
+        ByteBuffer tail = readAt(channel, footer, ByteBuffer.allocate(FOOTER_SIZE), path);
+        if (tail.get(0) != FOOTER || tail.getInt(FOOTER_SIZE - 4) != FOOTER_MAGIC) {
+            throw corrupt(path, "missing footer");
+        }
+        long expectedRows = tail.getLong(1);
+        int expectedEntries = tail.getInt(9);
+        int expectedPages = tail.getInt(13);
+        int expectedCrc = tail.getInt(17);
+        // Every entry takes at least one byte and every row at least 18, which bounds the allocations below
+        if (expectedRows < 0 || expectedRows > footer / MIN_ROW_BYTES || expectedEntries < 0 || expectedEntries > footer) {
+            throw corrupt(path, "bad footer");
+        }
+
+        String[] dictionary = new String[expectedEntries + 1];
+        int entries = 0;
+        long rows = 0;
+        CRC32 pageCrcs = new CRC32();
+        CRC32 crc = new CRC32();
+        int pages = 0;
+        ByteBuffer pageHeader = ByteBuffer.allocate(PAGE_HEADER_SIZE);
+        ByteBuffer page = ByteBuffer.allocate(0);
+
+        long position = HEADER_SIZE;
+        while (position < footer) {
+            if (footer - position < PAGE_HEADER_SIZE) throw corrupt(path, "bad page header");
+            readAt(channel, position, pageHeader.clear(), path);
+            position += PAGE_HEADER_SIZE;
+            byte type = pageHeader.get(0);
+            int count = pageHeader.getInt(1);
+            int length = pageHeader.getInt(5);
+            if (count < 0 || length < 0 || length > footer - position - 4) {
+                throw corrupt(path, "bad page header");
+            }
+            // The page buffer is reused and only grows, up to the largest page in the file
+            if (page.capacity() < length + 4) {
+                page = ByteBuffer.allocate(length + 4);
+            }
+            readAt(channel, position, page.clear().limit(length + 4), path);
+            position += length + 4;
+            int pageCrc = page.getInt(length);
+            page.limit(length);
+            crc.reset();
+            crc.update(page.duplicate());
+            if ((int) crc.getValue() != pageCrc) throw corrupt(path, "checksum mismatch in page " + pages);
+            pageCrcs.update(ByteBuffer.allocate(4).putInt(0, pageCrc));
+            pages++;
+
+            if (type == DICTIONARY_PAGE) {
+                if (count > expectedEntries - entries) throw corrupt(path, "dictionary overflow");
+                for (int i = 0; i < count; i++) {
+                    byte[] utf8 = new byte[readVarint(page)];
+                    page.get(utf8);
+                    dictionary[++entries] = new String(utf8, StandardCharsets.UTF_8);
+                }
+                if (page.hasRemaining()) throw corrupt(path, "trailing bytes in page " + (pages - 1));
+            } else if (type == ROW_PAGE) {
+                if (count > length / MIN_ROW_BYTES || count > expectedRows - rows) {
+                    throw corrupt(path, "row overflow");
+                }
+                List<CourseSelection> courses = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String studentId = entry(dictionary, entries, page);
+                    String studentName = entry(dictionary, entries, page);
+                    String courseId = entry(dictionary, entries, page);
+                    String courseName = entry(dictionary, entries, page);
+                    String semester = entry(dictionary, entries, page);
+                    String courseType = entry(dictionary, entries, page);
+                    int hours = page.getInt();
+                    double credit = page.getDouble();
+                    courses.add(new CourseSelection(studentId, studentName, courseId, courseName,
+                                                    semester, hours, credit, courseType));
+                }
+                if (page.hasRemaining()) throw corrupt(path, "trailing bytes in page " + (pages - 1));
+                rows += count;
+                if (!consumer.accept(courses, position, expectedRows)) {
+                    return false;
+                }
+            } else {
+                throw corrupt(path, "unknown page type " + type);
+            }
+        }
+
+        if (position != footer || pages != expectedPages || entries != expectedEntries
+            || rows != expectedRows || (int) pageCrcs.getValue() != expectedCrc) {
+            throw corrupt(path, "footer does not match contents");
+        }
+        return true;
+    }
+
+    // Fill buffer from the given file position; running out of file means the file is truncated
+    private static ByteBuffer readAt(FileChannel channel, long position, ByteBuffer buffer, Path path)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw corrupt(path, "truncated page");
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    // A dictionary reference must point at an entry already read
+    private static String entry(String[] dictionary, int entries, ByteBuffer page) {
+        int id = readVarint(page);
+        if (id < 0 || id > entries) {
+            throw new IllegalArgumentException("dictionary id out of range");
+        }
+        return dictionary[id];
+    }
+
+    private static void writePage(DataOutputStream out, byte type, int count, ByteArrayOutputStream payload,
+                                  CRC32 pageCrcs) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = payload.toByteArray();
+        crc.update(bytes);
+        out.writeByte(type);
+        out.writeInt(count);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeInt((int) crc.getValue());
+        pageCrcs.update(ByteBuffer.allocate(4).putInt(0, (int) crc.getValue()));
+        payload.reset();
+    }
+
+    private static void intern(String value, Map<String, Integer> ids, List<String> dictionary) {
+        if (value != null && !ids.containsKey(value)) {
+            dictionary.add(value);
+            ids.put(value, dictionary.size());
+        }
+    }
+
+    private static int id(String value, Map<String, Integer> ids) {
+        return value == null ? 0 : ids.get(value);
+    }
+
+    // Unsigned LEB128
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static IOException corrupt(Path path, String reason) {
+        return new IOException("Corrupt binary course file " + path + ": " + reason);
+    }
+}
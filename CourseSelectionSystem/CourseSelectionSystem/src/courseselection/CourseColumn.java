@@ -0,0 +1,13 @@
+package courseselection;
+
+// The fields of a course selection, as used for data-layer ordering
+public enum CourseColumn {
+    STUDENT_ID,
+    STUDENT_NAME,
+    COURSE_ID,
+    COURSE_NAME,
+    SEMESTER,
+    HOURS,
+    CREDIT,
+    TYPE
+}
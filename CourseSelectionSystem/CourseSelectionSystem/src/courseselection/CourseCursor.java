@@ -0,0 +1,86 @@
+package courseselection;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read-only list over a CourseManager in one order, materializing rows a page at a time as they
+// are asked for. The size is fixed when the cursor is opened; a few recent pages are cached
+// and dropped when the manager's version changes. Rows past the current end read as null.
+// Reading never sorts: while the column's order is stale (e.g. after a bulk import) rows read
+// as null placeholders and the onStale action runs, which should prepare the order in the
+// background and refresh the view. Meant for a single reader, e.g. the FX thread behind a
+// TableView.
+public final class CourseCursor extends AbstractList<CourseSelection> {
+    private static final int CACHED_PAGES = 8;
+
+    private final CourseManager manager;
+    private final CourseColumn column;
+    private final boolean descending;
+    private final int pageSize;
+    private final int size;
+    private long cachedVersion;
+    private Runnable onStale = () -> { };
+    private final Map<Integer, List<CourseSelection>> pages =
+        new LinkedHashMap<Integer, List<CourseSelection>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<CourseSelection>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+
+    // Sorts by the column if needed, so open cursors off the UI thread; null column means
+    // insertion order
+    public CourseCursor(CourseManager manager, CourseColumn column, boolean descending, int pageSize) {
+        this.manager = manager;
+        this.column = column;
+        this.descending = descending;
+        this.pageSize = Math.max(1, pageSize);
+        this.cachedVersion = manager.getVersion();
+        manager.prepareOrder(column);
+        this.size = manager.size();
+    }
+
+    @Override
+    public CourseSelection get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        long version = manager.getVersion();
+        if (version != cachedVersion) {
+            pages.clear();
+            cachedVersion = version;
+        }
+        int pageIndex = index / pageSize;
+        List<CourseSelection> page = pages.get(pageIndex);
+        if (page == null) {
+            page = manager.pageIfReady(column, descending, pageIndex * pageSize, pageSize);
+            if (page == null) {
+                onStale.run();
+                return null;
+            }
+            pages.put(pageIndex, page);
+        }
+        int offset = index - pageIndex * pageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Run when a read finds the order stale; may run once per row read until the order is ready
+    public void setOnStale(Runnable onStale) {
+        this.onStale = onStale;
+    }
+
+    public CourseColumn getColumn() {
+        return column;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
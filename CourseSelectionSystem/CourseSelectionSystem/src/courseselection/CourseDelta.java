@@ -0,0 +1,80 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Changes between two versions of a CourseManager, from changesSince: the current record of
+// every key inserted or updated since the watermark and a tombstone for every key deleted since
+// then, each key once. A full delta lists every row instead and replaces the data it is applied
+// to; it is produced when the watermark is missing, older than the change log or from another
+// run of the application. Pass getWatermark() to the next changesSince call.
+public final class CourseDelta {
+    // Watermarks are "<epoch>@<version>"; versions only mean something within one epoch
+    private static final char WATERMARK_SEPARATOR = '@';
+
+    private final String epoch;
+    private final long fromVersion;
+    private final long toVersion;
+    private final boolean full;
+    private final List<CourseSelection> upserts;
+    private final List<SelectionKey> deletes;
+
+    public CourseDelta(String epoch, long fromVersion, long toVersion, boolean full,
+                       List<CourseSelection> upserts, List<SelectionKey> deletes) {
+        this.epoch = epoch;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.full = full;
+        this.upserts = new ArrayList<>(upserts);
+        this.deletes = new ArrayList<>(deletes);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<CourseSelection> getUpserts() {
+        return Collections.unmodifiableList(upserts);
+    }
+
+    public List<SelectionKey> getDeletes() {
+        return Collections.unmodifiableList(deletes);
+    }
+
+    public int size() {
+        return upserts.size() + deletes.size();
+    }
+
+    public String getWatermark() {
+        return watermark(epoch, toVersion);
+    }
+
+    public static String watermark(String epoch, long version) {
+        return epoch + WATERMARK_SEPARATOR + version;
+    }
+
+    // Version of a watermark taken in the given epoch; -1 for null, malformed or foreign watermarks
+    public static long versionOf(String watermark, String epoch) {
+        if (watermark == null) return -1;
+        int separator = watermark.lastIndexOf(WATERMARK_SEPARATOR);
+        if (separator < 0 || !watermark.substring(0, separator).equals(epoch)) return -1;
+        try {
+            return Long.parseLong(watermark.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package courseselection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Streams course selections into a text file, one toFileString() line per row, optionally
+// GZIP-compressed. Rows are encoded straight into one reused 1 MB buffer that is handed to the
+// file channel (or the compressor) whenever it fills, so memory use does not grow with the
+// number of rows. Numbers are always written with ASCII digits and a '.' decimal point, which
+// is what toFileString() produces in the default locales the parsers expect. Snapshots ask for
+// the exact credit of toStorageString() instead of the one-decimal export format.
+public final class CourseExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Longest UTF-8 encoding of one char (surrogate pairs take 4 bytes for 2 chars)
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final int CREDIT_CACHE_SIZE = 256;
+
+    // Called after every buffer flush and once at the end
+    public interface Progress {
+        void update(long rows, long bytesWritten);
+    }
+
+    // Rows written, bytes in the file and bytes before compression
+    public static final class Result {
+        private final long rows;
+        private final long bytes;
+        private final long uncompressedBytes;
+
+        Result(long rows, long bytes, long uncompressedBytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.uncompressedBytes = uncompressedBytes;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+    }
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private long flushedBytes = 0;
+    private long rows = 0;
+    // Formatted credits by bit pattern; course credits take few distinct values
+    private final long[] cachedCreditBits = new long[CREDIT_CACHE_SIZE];
+    private final String[] cachedCredits = new String[CREDIT_CACHE_SIZE];
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final Progress progress;
+    private final boolean exactCredit;
+
+    private CourseExporter(FileChannel channel, OutputStream out, Progress progress, boolean exactCredit) {
+        this.channel = channel;
+        this.out = out;
+        this.progress = progress;
+        this.exactCredit = exactCredit;
+    }
+
+    // Write every remaining row of the iterator to path, replacing the file; progress may be null
+    public static Result write(Iterator<CourseSelection> courses, Path path, boolean gzip, Progress progress)
+            throws IOException {
+        return write(courses, path, gzip, false, progress);
+    }
+
+    // As above; with exactCredit the rows are written as toStorageString() writes them
+    public static Result write(Iterator<CourseSelection> courses, Path path, boolean gzip, boolean exactCredit,
+                               Progress progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream file = Channels.newOutputStream(channel);
+            GZIPOutputStream compressor = gzip ? new GZIPOutputStream(file, 1 << 16) : null;
+            OutputStream out = gzip ? compressor : file;
+            CourseExporter exporter = new CourseExporter(channel, out, progress, exactCredit);
+            while (courses.hasNext()) {
+                exporter.writeRow(courses.next());
+            }
+            exporter.flush();
+            if (compressor != null) {
+                compressor.finish();
+            }
+            long bytes = channel.size();
+            // Closing the stream also closes the channel and frees the compressor
+            out.close();
+            if (progress != null) {
+                progress.update(exporter.rows, bytes);
+            }
+            return new Result(exporter.rows, bytes, exporter.flushedBytes);
+        }
+    }
+
+    // Same layout as CourseSelection.toFileString(), or toStorageString() with exactCredit
+    private void writeRow(CourseSelection course) throws IOException {
+        putText(course.getStudentId());
+        putAscii(',');
+        putText(course.getStudentName());
+        putAscii(',');
+        putText(course.getCourseId());
+        putAscii(',');
+        putText(course.getCourseName());
+        putAscii(',');
+        putText(course.getSemester());
+        putAscii(',');
+        putText(Integer.toString(course.getHours()));
+        putAscii(',');
+        putText(credit(course.getCredit()));
+        putAscii(',');
+        putText(course.getType());
+        putAscii('\n');
+        rows++;
+    }
+
+    private void putAscii(char c) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    // UTF-8 encode into the buffer; null is written as "null", as String.format does
+    private void putText(String text) throws IOException {
+        if (text == null) {
+            text = "null";
+        }
+        if ((long) text.length() * MAX_BYTES_PER_CHAR > buffer.length) {
+            flush();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            flushedBytes += bytes.length;
+            return;
+        }
+        if (buffer.length - position < text.length() * MAX_BYTES_PER_CHAR) {
+            flush();
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?'; // unpaired surrogate, replaced as String.getBytes does
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        if (position == 0) return;
+        out.write(buffer, 0, position);
+        flushedBytes += position;
+        position = 0;
+        if (progress != null) {
+            progress.update(rows, channel.position());
+        }
+    }
+
+    private String credit(double credit) {
+        long bits = Double.doubleToRawLongBits(credit);
+        int slot = (int) (bits ^ (bits >>> 32)) & (CREDIT_CACHE_SIZE - 1);
+        String cached = cachedCredits[slot];
+        if (cached == null || cachedCreditBits[slot] != bits) {
+            cached = exactCredit ? Double.toString(credit) : formatCredit(credit);
+            cachedCredits[slot] = cached;
+            cachedCreditBits[slot] = bits;
+        }
+        return cached;
+    }
+
+    // "%.1f" without a Formatter: Formatter rounds the shortest decimal digits of the value
+    // (those of Double.toString) half-up, so the same is done here on that string
+    static String formatCredit(double value) {
+        String digits = Double.toString(Math.abs(value));
+        if (Double.isNaN(value) || Double.isInfinite(value) || digits.indexOf('E') >= 0) {
+            return String.format(Locale.ROOT, "%.1f", value);
+        }
+        int dot = digits.indexOf('.');
+        char[] kept = (digits.substring(0, dot) + digits.charAt(dot + 1)).toCharArray();
+        if (dot + 2 < digits.length() && digits.charAt(dot + 2) >= '5') {
+            int i = kept.length - 1;
+            while (i >= 0 && kept[i] == '9') {
+                kept[i--] = '0';
+            }
+            if (i >= 0) {
+                kept[i]++;
+            }
+            if (i < 0) {
+                kept = ("1" + new String(kept)).toCharArray();
+            }
+        }
+        String whole = new String(kept, 0, kept.length - 1);
+        String sign = Double.doubleToRawLongBits(value) < 0 ? "-" : "";
+        return sign + whole + "." + kept[kept.length - 1];
+    }
+}
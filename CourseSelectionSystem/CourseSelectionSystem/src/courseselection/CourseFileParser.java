@@ -0,0 +1,319 @@
+package courseselection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel loader for the comma-separated course file. The file is split into line-aligned
+// chunks that are read with positional reads and tokenized on the fork-join pool, one chunk
+// buffer per task; fields are located by offset and only turned into Strings once the whole
+// line is known to be well formed.
+// Line rules match CourseSelection.fromFileString; malformed and blank lines are skipped.
+public final class CourseFileParser {
+    private static final long CHUNK_SIZE = 8L << 20;
+    private static final int FIELD_COUNT = CourseSelection.FIELD_COUNT;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CourseFileParser() {
+    }
+
+    // Parse every well-formed line of the file, in file order
+    public static List<CourseSelection> parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBoundaries(channel);
+            int chunks = bounds.length - 1;
+            List<List<CourseSelection>> parts = new ArrayList<>(Collections.nCopies(chunks, null));
+            try {
+                ForkJoinPool.commonPool().invoke(new ChunkTask(channel, bounds, parts, 0, chunks));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int total = 0;
+            for (List<CourseSelection> part : parts) {
+                total += part.size();
+            }
+            List<CourseSelection> courses = new ArrayList<>(total);
+            for (List<CourseSelection> part : parts) {
+                courses.addAll(part);
+            }
+            return courses;
+        }
+    }
+
+    // Chunk start offsets plus the file size; every boundary sits just after a line break
+    // (a boundary between \r and \n only produces an empty line, which is skipped)
+    private static long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = CHUNK_SIZE;
+        while (next < size) {
+            long boundary = -1;
+            long position = next;
+            while (boundary < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    byte b = probe.get(i);
+                    if (b == '\n' || b == '\r') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (boundary < 0 || boundary >= size) break;
+            bounds.add(boundary);
+            next = boundary + CHUNK_SIZE;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Splits the chunk range in half until a single chunk is left, then parses it
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient FileChannel channel;
+        private final long[] bounds;
+        // Each task sets only its own slots; invoke() publishes them to the caller
+        private final transient List<List<CourseSelection>> parts;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] bounds, List<List<CourseSelection>> parts, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    parts.set(from, parseChunk(from));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(channel, bounds, parts, from, mid),
+                      new ChunkTask(channel, bounds, parts, mid, to));
+        }
+
+        private List<CourseSelection> parseChunk(int chunk) {
+            long start = bounds[chunk];
+            int length = (int) (bounds[chunk + 1] - start);
+            if (length == 0) {
+                return new ArrayList<>();
+            }
+            // Positional reads leave the channel position alone, so tasks can share the channel
+            byte[] bytes = new byte[length];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException("File shrank while reading");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return parseLines(bytes, length);
+        }
+    }
+
+    // Tokenize every line in bytes[0, length); \n, \r and \r\n all end a line
+    static List<CourseSelection> parseLines(byte[] bytes, int length) {
+        List<CourseSelection> courses = new ArrayList<>(length / 48 + 1);
+        int[] commas = new int[FIELD_COUNT];
+        FieldCache[] caches = new FieldCache[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            caches[i] = new FieldCache();
+        }
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            byte b = (i < length) ? bytes[i] : (byte) '\n';
+            if (b != '\n' && b != '\r') continue;
+
+            if (i > lineStart) {
+                CourseSelection course = parseLine(bytes, lineStart, i, commas, caches);
+                if (course != null) {
+                    courses.add(course);
+                }
+            }
+            if (b == '\r' && i + 1 < length && bytes[i + 1] == '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+        return courses;
+    }
+
+    // One line in bytes[from, to): exactly eight fields, where trailing empty fields do not count
+    private static CourseSelection parseLine(byte[] bytes, int from, int to, int[] commas,
+                                             FieldCache[] caches) {
+        int found = 0;
+        int lastFieldEnd = to;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') {
+                if (found < FIELD_COUNT - 1) {
+                    commas[found++] = i;
+                } else {
+                    lastFieldEnd = i;
+                    break;
+                }
+            }
+        }
+        if (found < FIELD_COUNT - 1) return null;
+        int lastFieldStart = commas[FIELD_COUNT - 2] + 1;
+        if (lastFieldEnd == lastFieldStart) return null;
+        for (int i = lastFieldEnd; i < to; i++) {
+            if (bytes[i] != ',') return null;
+        }
+        commas[FIELD_COUNT - 1] = lastFieldEnd;
+
+        int hoursStart = commas[4] + 1;
+        int creditStart = commas[5] + 1;
+        try {
+            int hours = parseInt(bytes, hoursStart, commas[5]);
+            double credit = parseDouble(bytes, creditStart, commas[6]);
+            return new CourseSelection(
+                caches[0].text(bytes, from, commas[0]),                // studentId
+                caches[1].text(bytes, commas[0] + 1, commas[1]),       // studentName
+                caches[2].text(bytes, commas[1] + 1, commas[2]),       // courseId
+                caches[3].text(bytes, commas[2] + 1, commas[3]),       // courseName
+                caches[4].text(bytes, commas[3] + 1, commas[4]),       // semester
+                hours,
+                credit,
+                caches[7].text(bytes, lastFieldStart, lastFieldEnd)    // type
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Trimmed UTF-8 field text; bytes <= 0x20 are the same characters String.trim removes
+    private static String text(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') start++;
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') end--;
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Optional sign and up to nine digits; anything else goes through Integer.parseInt
+    private static int parseInt(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') start++;
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') end--;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        int digits = end - i;
+        if (digits < 1 || digits > 9) {
+            return Integer.parseInt(text(bytes, start, end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int d = bytes[i] - '0';
+            if (d < 0 || d > 9) {
+                return Integer.parseInt(text(bytes, start, end));
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    // Plain decimals with at most 15 significant digits are exact as mantissa / 10^scale;
+    // exponents, NaN, hex and the like go through Double.parseDouble
+    private static double parseDouble(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') start++;
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') end--;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) scale++;
+            } else {
+                return Double.parseDouble(text(bytes, start, end));
+            }
+        }
+        if (digits == 0 || digits > 15) {
+            return Double.parseDouble(text(bytes, start, end));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    // Direct-mapped cache of recently seen ASCII field values, so rows that repeat a semester,
+    // course or name share one String instead of decoding a fresh copy per row
+    private static final class FieldCache {
+        private static final int SLOTS = 1024;
+        private final String[] slots = new String[SLOTS];
+
+        String text(byte[] bytes, int start, int end) {
+            while (start < end && (bytes[start] & 0xFF) <= ' ') start++;
+            while (end > start && (bytes[end - 1] & 0xFF) <= ' ') end--;
+
+            int hash = 0;
+            boolean ascii = true;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + bytes[i];
+                ascii &= bytes[i] >= 0;
+            }
+            if (!ascii) {
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+            int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+            String cached = slots[slot];
+            if (cached != null && sameAscii(cached, bytes, start, end)) {
+                return cached;
+            }
+            String value = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+            slots[slot] = value;
+            return value;
+        }
+
+        private static boolean sameAscii(String value, byte[] bytes, int start, int end) {
+            if (value.length() != end - start) return false;
+            for (int i = start; i < end; i++) {
+                if (value.charAt(i - start) != bytes[i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,1201 @@
+package courseselection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Safe for concurrent use. Writers take the write lock of a StampedLock and bump the version.
+// Readers first run optimistically without locking and keep the result only if no write
+// overlapped them; otherwise they repeat under the read lock. snapshot() freezes the rows of
+// one version for reading without any lock; withConsistentView walks them under the read lock.
+// A write the mutation listener (the journal) cannot record is rolled back, and the write
+// method throws UncheckedIOException instead of reporting a change that would not survive.
+// The journal is forced to disk after the write lock is released (see endWrite).
+public class CourseManager {
+    // Packed column storage and the primary-key index, kept in insertion order
+    private CourseStore store;
+    // Secondary indexes over row ids; bucket sizes double as the per-student and per-semester counts
+    private RowBuckets rowsByStudent;
+    private RowBuckets rowsBySemester;
+    // Trigram index over student names and IDs for searchByStudent; one document per distinct
+    // (studentId, studentName) pair, with the number of rows using each pair
+    private NgramIndex<Long> studentSearchIndex;
+    private LongIntMap studentPairRows;
+    // Row ids ordered by (column, key) for sorted paging. The credit order always exists (it also
+    // serves credit ranges); the others are created by the first read sorted by their column and
+    // maintained from then on.
+    private final Map<CourseColumn, RowOrder> orders = new EnumMap<>(CourseColumn.class);
+    // Count, credit and hours per group, kept current by insert() and remove(); course types are
+    // grouped by their lower-case spelling, numbered in typeGroups
+    private final Map<CourseTotals.GroupBy, GroupTotals> totals = new EnumMap<>(CourseTotals.GroupBy.class);
+    private TextDictionary typeGroups;
+    // Picks among the indexes above for CourseQuery objects
+    private QueryPlanner planner;
+    // Optional observer of committed changes (e.g. the write-ahead journal)
+    private volatile MutationListener mutationListener;
+    // Changes made by the write in progress, so commit() can take them back if the listener
+    // refuses the write; only kept while a listener is attached
+    private final UndoLog undo = new UndoLog();
+    // Listener that accepted the write in progress and must make it durable once the write
+    // lock is released, so an fsync never holds off readers and other writers
+    private MutationListener pendingDurable;
+    // Keys touched by each version, for changesSince; the epoch tells this instance's watermarks
+    // from those of earlier runs, whose versions restarted from zero
+    private final ChangeLog changes = new ChangeLog(Integer.getInteger("courses.changes.retain", 1 << 20));
+    private final String epoch = UUID.randomUUID().toString();
+    
+    private final StampedLock lock = new StampedLock();
+    // Incremented by every write that changes the data
+    private volatile long version = 0;
+    
+    public CourseManager() {
+        this.store = new CourseStore();
+        this.rowsByStudent = new RowBuckets();
+        this.rowsBySemester = new RowBuckets();
+        this.studentSearchIndex = new NgramIndex<>();
+        this.studentPairRows = new LongIntMap();
+        this.typeGroups = new TextDictionary();
+        for (CourseTotals.GroupBy groupBy : CourseTotals.GroupBy.values()) {
+            this.totals.put(groupBy, new GroupTotals());
+        }
+        this.planner = new QueryPlanner(store, rowsByStudent, rowsBySemester, studentSearchIndex,
+            studentPairRows, orders);
+        this.orders.put(CourseColumn.CREDIT, new RowOrder((a, b) -> store.compare(CourseColumn.CREDIT, a, b), store::rows));
+        Metrics.watch(this);
+    }
+    
+    // Add a new course selection with enhanced validation
+    public boolean addCourseSelection(CourseSelection course) {
+        if (!isValidCourseSelection(course)) {
+            return false;
+        }
+        
+        // Normalize once on entry, before the fields are packed into the store
+        course.normalize();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            if (!insert(course)) {
+                return false;
+            }
+            commit(List.of(Mutation.add(course)));
+            return true;
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.ADD, started);
+        }
+    }
+    
+    // Delete by normalized key lookup
+    public boolean deleteCourseSelection(String studentId, String courseId, String semester) {
+        SelectionKey key = SelectionKey.of(studentId, courseId, semester);
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            int row = findRow(key);
+            if (row == CourseStore.NO_ROW) {
+                return false;
+            }
+            remove(row);
+            commit(List.of(Mutation.delete(key)));
+            return true;
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.DELETE, started);
+        }
+    }
+    
+    // Modified to prevent creating duplicate entries during update with null checks
+    public boolean modifyCourseSelection(String studentId, String courseId, String semester, 
+                                      CourseSelection newCourse) {
+        if (!isValidCourseSelection(newCourse)) {
+            return false;
+        }
+        
+        SelectionKey oldKey = SelectionKey.of(studentId, courseId, semester);
+        newCourse.normalize();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            int oldRow = findRow(oldKey);
+            if (oldRow == CourseStore.NO_ROW) {
+                return false;
+            }
+            
+            // Check if modification would create a duplicate of another record
+            int existing = findRow(newCourse.getKey());
+            if (existing != CourseStore.NO_ROW && existing != oldRow) {
+                return false;
+            }
+            
+            remove(oldRow);
+            insert(newCourse);
+            commit(List.of(Mutation.modify(oldKey, newCourse)));
+            return true;
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.MODIFY, started);
+        }
+    }
+    
+    // Get courses by student ID from the student index
+    public List<CourseSelection> getCoursesByStudentId(String studentId) {
+        if (studentId == null) return new ArrayList<>();
+        
+        int student = CourseStore.packStudentId(Normalizer.clean(studentId));
+        return student < 0 ? new ArrayList<>() : read(Metrics.Operation.QUERY, () -> views(rowsByStudent, student), null);
+    }
+    
+    // Get courses in a semester (case-insensitive) from the semester index
+    public List<CourseSelection> getCoursesBySemester(String semester) {
+        if (semester == null) return new ArrayList<>();
+        
+        int group = CourseStore.semesterGroup(Normalizer.clean(semester));
+        return group < 0 ? new ArrayList<>() : read(Metrics.Operation.QUERY, () -> views(rowsBySemester, group), null);
+    }
+    
+    // Case-insensitive "contains" search over student names and IDs via the trigram index
+    public List<CourseSelection> searchByStudent(String keyword) {
+        return searchByStudent(keyword, Integer.MAX_VALUE);
+    }
+    
+    // Same search, stopping after maxResults matches
+    public List<CourseSelection> searchByStudent(String keyword, int maxResults) {
+        if (keyword == null) return new ArrayList<>();
+        
+        return read(Metrics.Operation.SEARCH, () -> {
+            List<CourseSelection> results = new ArrayList<>();
+            int bound = store.rowLimit();
+            for (long pair : studentSearchIndex.search(keyword)) {
+                int nameId = (int) pair;
+                int visited = 0;
+                for (int row = rowsByStudent.first(pair >>> 32); row != RowBuckets.NONE; row = rowsByStudent.next(row)) {
+                    if (++visited > bound) throw new ConcurrentModificationException();
+                    if (store.studentNameId(row) == nameId) {
+                        if (results.size() == maxResults) {
+                            return results;
+                        }
+                        results.add(store.view(row));
+                    }
+                }
+            }
+            return results;
+        }, null);
+    }
+    
+    // All selections in credit order, read straight from the maintained ordering
+    public List<CourseSelection> sortByCredit() {
+        return read(Metrics.Operation.PAGE, () -> {
+            RowOrder order = orders.get(CourseColumn.CREDIT);
+            return views(order.range(0, order.size()));
+        }, CourseColumn.CREDIT);
+    }
+    
+    // One page of selections in credit order
+    public List<CourseSelection> page(int offset, int limit) {
+        return page(CourseColumn.CREDIT, false, offset, limit);
+    }
+    
+    // One page of selections ordered by a column (ties in key order), or in insertion order
+    // when column is null. The first page read for a column sorts all rows once.
+    public List<CourseSelection> page(CourseColumn column, boolean descending, int offset, int limit) {
+        if (column == null) {
+            return read(Metrics.Operation.PAGE, () -> insertionPage(offset, limit), null);
+        }
+        return read(Metrics.Operation.PAGE, () -> orderedPage(column, descending, offset, limit), column);
+    }
+    
+    // Like page(), but null instead of sorting when the column's order must be built or rebuilt
+    // first, e.g. after a bulk import; a UI thread shows placeholders and calls prepareOrder()
+    // in the background
+    public List<CourseSelection> pageIfReady(CourseColumn column, boolean descending, int offset, int limit) {
+        if (column == null) {
+            return page(null, descending, offset, limit);
+        }
+        return read(Metrics.Operation.PAGE,
+            () -> isOrderReady(column) ? orderedPage(column, descending, offset, limit) : null, null);
+    }
+    
+    private List<CourseSelection> orderedPage(CourseColumn column, boolean descending, int offset, int limit) {
+        RowOrder order = orders.get(column);
+        if (!descending) {
+            return views(order.range(offset, limit));
+        }
+        // Descending pages are ascending ranges counted from the end, read backwards
+        long to = (long) order.size() - Math.max(0, offset);
+        long from = Math.max(0, to - Math.max(0, limit));
+        int[] rows = order.range((int) from, (int) (to - from));
+        for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+            int row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+        }
+        return views(rows);
+    }
+    
+    // Build the ordering for a column ahead of the first page read, e.g. on a background thread
+    public void prepareOrder(CourseColumn column) {
+        if (column != null) {
+            read(() -> null, column);
+        }
+    }
+    
+    // Selections with lo <= credit <= hi, in credit order
+    public List<CourseSelection> creditBetween(double lo, double hi) {
+        if (lo > hi) return new ArrayList<>();
+        
+        return read(Metrics.Operation.QUERY, () -> {
+            RowOrder order = orders.get(CourseColumn.CREDIT);
+            int from = order.firstIndexWhere(row -> store.credit(row) >= lo);
+            int to = order.firstIndexWhere(row -> store.credit(row) > hi);
+            return views(order.range(from, to - from));
+        }, CourseColumn.CREDIT);
+    }
+    
+    // Selections matching a query, in its order, after its offset and limit
+    public List<CourseSelection> query(CourseQuery query) {
+        return read(Metrics.Operation.QUERY, () -> views(planner.execute(planner.plan(query))), orderFor(query));
+    }
+    
+    // Like query(), but only the query's selected columns of each row, in selection order
+    public List<Object[]> project(CourseQuery query) {
+        return read(Metrics.Operation.QUERY, () -> {
+            List<CourseColumn> columns = query.getProjection();
+            int[] rows = planner.execute(planner.plan(query));
+            List<Object[]> results = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                Object[] values = new Object[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = store.value(columns.get(i), row);
+                }
+                results.add(values);
+            }
+            return results;
+        }, orderFor(query));
+    }
+    
+    // Number of selections matching a query's conditions; its order, offset and limit are ignored
+    public int count(CourseQuery query) {
+        return read(Metrics.Operation.QUERY, () -> planner.count(planner.plan(query)), null);
+    }
+    
+    // The plan query() would run: access path, filters, ordering and limits
+    public String explain(CourseQuery query) {
+        return read(() -> planner.plan(query).describe(), orderFor(query));
+    }
+    
+    // Totals of one student, semester, course or type, read from the maintained aggregates;
+    // all zero when nothing matches
+    public CourseTotals totalsForStudent(String studentId) {
+        return totals(CourseTotals.GroupBy.STUDENT, CourseStore.packStudentId(Normalizer.clean(studentId)));
+    }
+    
+    public CourseTotals totalsForSemester(String semester) {
+        return totals(CourseTotals.GroupBy.SEMESTER, CourseStore.semesterGroup(Normalizer.clean(semester)));
+    }
+    
+    public CourseTotals totalsForCourse(String courseId) {
+        return totals(CourseTotals.GroupBy.COURSE, CourseStore.packCourseId(Normalizer.clean(courseId)));
+    }
+    
+    public CourseTotals totalsForType(String type) {
+        String clean = Normalizer.clean(type);
+        return clean == null ? totals(CourseTotals.GroupBy.TYPE, -1)
+            : totals(CourseTotals.GroupBy.TYPE, read(() -> typeGroups.find(clean.toLowerCase()), null));
+    }
+    
+    // A student's totals within one semester, e.g. for checking a credit cap
+    public CourseTotals totalsForStudentInSemester(String studentId, String semester) {
+        int student = CourseStore.packStudentId(Normalizer.clean(studentId));
+        int group = CourseStore.semesterGroup(Normalizer.clean(semester));
+        return totals(CourseTotals.GroupBy.STUDENT_SEMESTER,
+            student < 0 || group < 0 ? -1 : studentSemester(student, group));
+    }
+    
+    // Every group of one grouping, ordered by group label
+    public List<CourseTotals> totalsBy(CourseTotals.GroupBy groupBy) {
+        List<CourseTotals> all = read(Metrics.Operation.TOTALS, () -> {
+            GroupTotals groups = totals.get(groupBy);
+            List<CourseTotals> results = new ArrayList<>(groups.groupCount());
+            for (long group : groups.groups()) {
+                results.add(new CourseTotals(groupLabel(groupBy, group), groups.count(group),
+                    groups.creditSum(group), groups.hoursSum(group)));
+            }
+            return results;
+        }, null);
+        all.sort((a, b) -> a.getGroup().compareTo(b.getGroup()));
+        return all;
+    }
+    
+    // Total number of stored selections
+    public int size() {
+        return read(store::size, null);
+    }
+    
+    // Count courses in a semester (case-insensitive) without touching the records
+    public int countCoursesBySemester(String semester) {
+        if (semester == null) return 0;
+        
+        int group = CourseStore.semesterGroup(Normalizer.clean(semester));
+        return group < 0 ? 0 : read(() -> rowsBySemester.count(group), null);
+    }
+    
+    // Version of the data; changes with every committed write
+    public long getVersion() {
+        return version;
+    }
+    
+    // Watermark of the current version, for a later changesSince call
+    public String getWatermark() {
+        return CourseDelta.watermark(epoch, version);
+    }
+    
+    // Version of the write that last inserted or updated a record; -1 if there is no such record
+    public long getRecordVersion(String studentId, String courseId, String semester) {
+        long key = packKey(SelectionKey.of(studentId, courseId, semester));
+        return read(() -> {
+            int row = store.find(key);
+            return row == CourseStore.NO_ROW ? -1L : store.stamp(row);
+        }, null);
+    }
+    
+    // Every change after a watermark, as the current record of each inserted or updated key and a
+    // tombstone for each deleted one. Costs O(changes) while the change log still reaches back to
+    // the watermark; a missing, foreign or too old watermark gets a full delta of every row.
+    public CourseDelta changesSince(String watermark) {
+        return read(Metrics.Operation.CHANGES_SINCE, () -> {
+            long current = version;
+            long since = CourseDelta.versionOf(watermark, epoch);
+            if (since < 0 || since > current || !changes.covers(since)) {
+                return new CourseDelta(epoch, 0, current, true, allViews(), List.of());
+            }
+            List<CourseSelection> upserts = new ArrayList<>();
+            List<SelectionKey> deletes = new ArrayList<>();
+            for (long key : changes.keysSince(since)) {
+                int row = store.find(key);
+                if (row == CourseStore.NO_ROW) {
+                    deletes.add(CourseStore.unpackKey(key));
+                } else {
+                    upserts.add(store.view(row));
+                }
+            }
+            return new CourseDelta(epoch, since, current, false, upserts, deletes);
+        }, null);
+    }
+    
+    // Every selection as of one version, readable while writers go on. Taking it copies the row
+    // ids only; close it when done (see CourseSnapshot). Freezing the store is a write to it, so
+    // this takes the read lock rather than running optimistically.
+    public CourseSnapshot snapshot() {
+        long started = Metrics.start();
+        long stamp = lock.readLock();
+        try {
+            return new CourseSnapshot(version, store.freeze());
+        } finally {
+            lock.unlockRead(stamp);
+            Metrics.record(Metrics.Operation.SNAPSHOT, started);
+        }
+    }
+    
+    // Run an action on all selections while writes are held off, e.g. a checkpoint that must
+    // not lose mutations journaled between reading the data and truncating the journal.
+    // Keep the action short: every writer waits for it.
+    // The list is read-only, builds each row view as it is reached, and is only valid until
+    // the action returns; walk it in order, as an export does, to keep memory constant.
+    public <T> T withConsistentView(Function<List<CourseSelection>, T> action) {
+        long stamp = lock.readLock();
+        try {
+            return action.apply(new LazyRows());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // Improved import with duplicate prevention and null checks
+    public int importCourseSelections(List<CourseSelection> imported) {
+        return importWithReport(imported).getAdded();
+    }
+    
+    // Validate the whole batch in one pass, then insert the valid, non-duplicate rows
+    public ImportReport importWithReport(List<CourseSelection> imported) {
+        ImportReport report = new ImportReport();
+        if (imported != null) {
+            importBatch(imported, 1, report);
+        }
+        return report;
+    }
+    
+    // Import one batch into a running report; rejected rows are numbered from firstRow.
+    // Validation and normalization run before the write lock is taken.
+    public void importBatch(List<CourseSelection> batch, int firstRow, ImportReport report) {
+        List<ValidationResult> results = Validator.validateBatch(batch, firstRow);
+        List<CourseSelection> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (results.get(i).isValid()) {
+                valid.add(batch.get(i));
+            } else {
+                report.recordInvalid(results.get(i));
+            }
+        }
+        Metrics.add(Metrics.Counter.ROWS_REJECTED, batch.size() - valid.size());
+        importValidated(valid, report);
+    }
+    
+    // importBatch for rows the caller has just validated, e.g. FileHandler, which validates text
+    // rows as it parses them so rejections carry their file line. Rows are normalized here.
+    void importValidated(List<CourseSelection> batch, ImportReport report) {
+        for (CourseSelection course : batch) {
+            course.normalize();
+        }
+        
+        List<Mutation> added = new ArrayList<>();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            // Re-sorting once on the next read beats shifting every order for every row
+            if (batch.size() > 1) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            for (CourseSelection course : batch) {
+                if (insert(course)) {
+                    report.recordAdded();
+                    added.add(Mutation.add(course));
+                } else {
+                    report.recordDuplicate();
+                }
+            }
+            // The whole batch reaches the listener as one group, in commit order
+            commit(added);
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.IMPORT_BATCH, started);
+        }
+        Metrics.add(Metrics.Counter.ROWS_DUPLICATE, batch.size() - added.size());
+    }
+    
+    // Bulk load of rows this system wrote itself and a checksum still vouches for, i.e. the
+    // rows of a snapshot whose manifest matches: they were normalized and validated before they
+    // were saved, so neither is repeated in full. The checksum only proves the file unchanged,
+    // though, and the numbers are the one part the file format rewrites, so hours and credit are
+    // checked again; a row failing them is rejected as importBatch would. Only use it for bytes
+    // the checksum covers; journal records and any other input go through importBatch. A row
+    // whose key does not fit the store is reported as invalid, one whose key is present as a
+    // duplicate. The rows are not passed
+    // to the mutation listener, since they are already on disk, and changesSince from any
+    // earlier watermark returns a full delta.
+    public void loadTrusted(List<CourseSelection> rows, int firstRow, ImportReport report) {
+        int added = 0;
+        int rejected = 0;
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            if (rows.size() > 1) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                CourseSelection course = rows.get(i);
+                if (!Validator.isValidHours(course.getHours()) || !Validator.isValidCredit(course.getCredit())) {
+                    report.recordInvalid(Validator.validate(course, firstRow + i));
+                    rejected++;
+                } else if (insert(course)) {
+                    report.recordAdded();
+                    added++;
+                } else if (findRow(course.getKey()) == CourseStore.NO_ROW) {
+                    report.recordInvalid(unstorable(course, firstRow + i));
+                    rejected++;
+                } else {
+                    report.recordDuplicate();
+                }
+            }
+            if (added > 0) {
+                version++;
+                changes.clear(version);
+            }
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.IMPORT_BATCH, started);
+        }
+        Metrics.add(Metrics.Counter.ROWS_REJECTED, rejected);
+        Metrics.add(Metrics.Counter.ROWS_DUPLICATE, rows.size() - added - rejected);
+    }
+    
+    // Why a row that was not inserted, although its key is free, cannot be stored
+    private static ValidationResult unstorable(CourseSelection course, int row) {
+        ValidationResult result = Validator.validate(course, row);
+        return result.isValid() ? ValidationResult.of(row, List.of("Key cannot be stored")) : result;
+    }
+    
+    // Delete exactly the rows query() would return, in one write: one pass, one listener
+    // notification (so one journal append), and orders re-sorted once on the next read
+    public BatchReport deleteWhere(CourseQuery query) {
+        BatchReport report = new BatchReport();
+        List<Mutation> applied = new ArrayList<>();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            int[] rows = matchingRows(query);
+            if (rows.length > 1) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            for (int row : rows) {
+                SelectionKey key = store.view(row).getKey();
+                remove(row);
+                report.record(key, BatchReport.Outcome.APPLIED);
+                applied.add(Mutation.delete(key));
+            }
+            commit(applied);
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.BULK_WRITE, started);
+        }
+        return report;
+    }
+    
+    // Rewrite the rows query() would return with an update applied to a copy of each, in one
+    // write. Rows whose updated record is invalid or would take another row's key keep their
+    // old values and are reported; the rest are applied. The update runs under the write lock
+    // and must not call back into this manager.
+    public BatchReport updateWhere(CourseQuery query, Consumer<CourseSelection> update) {
+        BatchReport report = new BatchReport();
+        List<Mutation> applied = new ArrayList<>();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            int[] rows = matchingRows(query);
+            if (rows.length > 1) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            for (int row : rows) {
+                SelectionKey oldKey = store.view(row).getKey();
+                CourseSelection updated = store.view(row);
+                update.accept(updated);
+                if (!isValidCourseSelection(updated)) {
+                    report.record(oldKey, BatchReport.Outcome.INVALID);
+                    continue;
+                }
+                updated.normalize();
+                int existing = findRow(updated.getKey());
+                if (existing != CourseStore.NO_ROW && existing != row) {
+                    report.record(oldKey, BatchReport.Outcome.DUPLICATE);
+                    continue;
+                }
+                remove(row);
+                insert(updated);
+                report.record(oldKey, BatchReport.Outcome.APPLIED);
+                applied.add(Mutation.modify(oldKey, updated));
+            }
+            commit(applied);
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.BULK_WRITE, started);
+        }
+        return report;
+    }
+    
+    // Apply mixed mutations all or nothing: if any of them is invalid, deletes or modifies a
+    // missing key, or would duplicate a key, the ones already applied are undone and the data
+    // is left as it was (rows restored by an undo move to the end of the insertion order).
+    // A committed batch reaches the listener as one group.
+    public BatchReport applyBatch(List<Mutation> mutations) {
+        BatchReport report = new BatchReport();
+        // Validation and normalization happen before the write lock, as in importBatch
+        boolean valid = true;
+        for (Mutation mutation : mutations) {
+            CourseSelection record = mutation.getRecord();
+            if (record != null) {
+                if (isValidCourseSelection(record)) {
+                    record.normalize();
+                } else {
+                    valid = false;
+                }
+            }
+        }
+        if (!valid) {
+            for (Mutation mutation : mutations) {
+                CourseSelection record = mutation.getRecord();
+                boolean invalid = record != null && !isValidCourseSelection(record);
+                report.record(mutation.getKey(), invalid ? BatchReport.Outcome.INVALID : BatchReport.Outcome.ABORTED);
+            }
+            report.markAborted();
+            return report;
+        }
+        
+        List<Mutation> applied = new ArrayList<>(mutations.size());
+        // Records removed by each applied mutation, for undo; null for adds
+        List<CourseSelection> removed = new ArrayList<>(mutations.size());
+        long[] removedStamps = new long[mutations.size()];
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            if (mutations.size() > 1) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            for (Mutation mutation : mutations) {
+                BatchReport.Outcome outcome = apply(mutation, removed, removedStamps);
+                // An add is reported under its normalized key
+                report.record(mutation.getType() == Mutation.Type.ADD ? mutation.getRecord().getKey() : mutation.getKey(),
+                    outcome);
+                if (outcome != BatchReport.Outcome.APPLIED) {
+                    undo(applied, removed, removedStamps);
+                    report.markAborted();
+                    return report;
+                }
+                applied.add(mutation.getRecord() == null ? mutation
+                    : mutation.getType() == Mutation.Type.ADD ? Mutation.add(mutation.getRecord())
+                    : Mutation.modify(mutation.getKey(), mutation.getRecord()));
+            }
+            commit(applied);
+            return report;
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.BULK_WRITE, started);
+        }
+    }
+    
+    // Apply a delta from changesSince, e.g. one read back by FileHandler.importDelta, in one write.
+    // Idempotent: an upsert whose record is already present unchanged is reported as DUPLICATE
+    // and a tombstone of a missing key as NOT_FOUND, so applying a delta twice changes nothing.
+    // Tombstones go first, then upserts; invalid upserts are skipped. A full delta also deletes
+    // every row it does not list.
+    public BatchReport applyDelta(CourseDelta delta) {
+        BatchReport report = new BatchReport();
+        List<CourseSelection> upserts = new ArrayList<>(delta.getUpserts().size());
+        for (CourseSelection record : delta.getUpserts()) {
+            if (isValidCourseSelection(record)) {
+                record.normalize();
+                upserts.add(record);
+            } else {
+                report.record(record.getKey(), BatchReport.Outcome.INVALID);
+            }
+        }
+        
+        List<Mutation> applied = new ArrayList<>();
+        long started = Metrics.start();
+        long stamp = beginWrite();
+        try {
+            if (delta.size() > 1 || delta.isFull()) {
+                orders.values().forEach(RowOrder::invalidate);
+            }
+            if (delta.isFull()) {
+                LongIntMap listed = new LongIntMap(upserts.size());
+                for (CourseSelection record : upserts) {
+                    listed.put(packKey(record.getKey()), 0);
+                }
+                for (int row : store.rows()) {
+                    if (!listed.containsKey(store.key(row))) {
+                        SelectionKey key = store.view(row).getKey();
+                        remove(row);
+                        report.record(key, BatchReport.Outcome.APPLIED);
+                        applied.add(Mutation.delete(key));
+                    }
+                }
+            }
+            for (SelectionKey key : delta.getDeletes()) {
+                int row = findRow(key);
+                if (row == CourseStore.NO_ROW) {
+                    report.record(key, BatchReport.Outcome.NOT_FOUND);
+                    continue;
+                }
+                remove(row);
+                report.record(key, BatchReport.Outcome.APPLIED);
+                applied.add(Mutation.delete(key));
+            }
+            for (CourseSelection record : upserts) {
+                int row = findRow(record.getKey());
+                if (row == CourseStore.NO_ROW) {
+                    insert(record);
+                    applied.add(Mutation.add(record));
+                } else if (sameRecord(row, record)) {
+                    report.record(record.getKey(), BatchReport.Outcome.DUPLICATE);
+                    continue;
+                } else {
+                    remove(row);
+                    insert(record);
+                    applied.add(Mutation.modify(record.getKey(), record));
+                }
+                report.record(record.getKey(), BatchReport.Outcome.APPLIED);
+            }
+            commit(applied);
+        } finally {
+            endWrite(stamp);
+            Metrics.record(Metrics.Operation.APPLY_DELTA, started);
+        }
+        return report;
+    }
+    
+    // Get all course selections as fresh views, in insertion order
+    public List<CourseSelection> getAllCourseSelections() {
+        return read(this::allViews, null);
+    }
+    
+    // Set under the write lock, so a write is either fully undoable or never sees the listener
+    public void setMutationListener(MutationListener listener) {
+        long stamp = beginWrite();
+        try {
+            this.mutationListener = listener;
+        } finally {
+            endWrite(stamp);
+        }
+    }
+    
+    // Publish a write: hand it to the listener, then bump the version and log the keys it
+    // touched. Called under the write lock, so listeners see mutations in commit order. Rows
+    // written by insert() already carry the new version as their stamp. An empty write
+    // publishes nothing. If the listener refuses the write, it is rolled back and the failure
+    // is rethrown.
+    private void commit(List<Mutation> mutations) {
+        if (mutations.isEmpty()) {
+            return;
+        }
+        MutationListener listener = mutationListener;
+        if (listener != null) {
+            try {
+                listener.onMutations(mutations);
+            } catch (IOException e) {
+                rollback();
+                throw new UncheckedIOException("Change undone, the journal could not record it", e);
+            }
+        }
+        pendingDurable = listener;
+        version++;
+        for (Mutation mutation : mutations) {
+            changes.record(version, packKey(mutation.getKey()));
+            CourseSelection record = mutation.getRecord();
+            if (mutation.getType() == Mutation.Type.MODIFY && !record.getKey().equals(mutation.getKey())) {
+                changes.record(version, packKey(record.getKey()));
+            }
+        }
+    }
+    
+    // Take the write lock for a change; every write starts with an empty undo log
+    private long beginWrite() {
+        long stamp = lock.writeLock();
+        undo.clear();
+        pendingDurable = null;
+        return stamp;
+    }
+    
+    // Release the write lock, then wait for the listener to make a committed write durable.
+    // The change is already visible by then and cannot be rolled back; if it does not reach
+    // the disk the journal refuses every later write, so no further change is lost silently.
+    private void endWrite(long stamp) {
+        MutationListener listener = pendingDurable;
+        pendingDurable = null;
+        lock.unlockWrite(stamp);
+        if (listener != null) {
+            try {
+                listener.awaitDurable();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Change may not survive a restart, the journal could not be synced", e);
+            }
+        }
+    }
+    
+    // Undo the write in progress, newest change first; rows it removed come back at the end
+    // of the insertion order with their old stamps
+    private void rollback() {
+        for (int i = undo.size() - 1; i >= 0; i--) {
+            CourseSelection record = undo.record(i);
+            if (record == null) {
+                remove(store.find(undo.value(i)));
+            } else {
+                insert(record);
+                store.setStamp(findRow(record.getKey()), undo.value(i));
+            }
+        }
+        undo.clear();
+    }
+    
+    // read() timed as one operation
+    private <T> T read(Metrics.Operation operation, Supplier<T> query, CourseColumn orderedBy) {
+        long started = Metrics.start();
+        T result = read(query, orderedBy);
+        Metrics.record(operation, started);
+        return result;
+    }
+    
+    // Table and index sizes for Metrics
+    Map<String, Long> metricSizes() {
+        return read(() -> {
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            sizes.put("rows", (long) store.size());
+            sizes.put("students", (long) rowsByStudent.bucketCount());
+            sizes.put("semesters", (long) rowsBySemester.bucketCount());
+            sizes.put("searchDocuments", (long) studentSearchIndex.size());
+            sizes.put("sortedOrders", (long) orders.size());
+            sizes.put("changeLogEntries", (long) changes.size());
+            sizes.put("version", version);
+            return sizes;
+        }, null);
+    }
+    
+    // Run a query without blocking writers and keep the result if no write overlapped it.
+    // A query racing a writer may see torn state and fail or loop; such failures and overlaps
+    // are retried under the read lock. Queries over a column order (orderedBy non-null) create or
+    // refresh it first, which needs the write lock.
+    private <T> T read(Supplier<T> query, CourseColumn orderedBy) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0 && isOrderReady(orderedBy)) {
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // torn read; retried under the lock below
+            }
+        }
+        
+        stamp = lock.readLock();
+        try {
+            if (!isOrderReady(orderedBy)) {
+                long writeStamp = lock.tryConvertToWriteLock(stamp);
+                if (writeStamp == 0) {
+                    lock.unlockRead(stamp);
+                    writeStamp = lock.writeLock();
+                }
+                stamp = writeStamp;
+                orders.computeIfAbsent(orderedBy, this::newOrder).refresh();
+            }
+            return query.get();
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+    
+    // Rows a query selects, read under the caller's write lock; a stale order of its sort
+    // column is refreshed first so the planner can walk it
+    private int[] matchingRows(CourseQuery query) {
+        CourseColumn column = orderFor(query);
+        if (column != null) {
+            orders.get(column).refresh();
+        }
+        return planner.execute(planner.plan(query));
+    }
+    
+    // Apply one mutation of a batch under the write lock, remembering the record it replaced
+    // and that record's stamp
+    private BatchReport.Outcome apply(Mutation mutation, List<CourseSelection> removed, long[] removedStamps) {
+        CourseSelection record = mutation.getRecord();
+        if (mutation.getType() == Mutation.Type.ADD) {
+            if (!insert(record)) {
+                return BatchReport.Outcome.DUPLICATE;
+            }
+            removed.add(null);
+            return BatchReport.Outcome.APPLIED;
+        }
+        int row = findRow(mutation.getKey());
+        if (row == CourseStore.NO_ROW) {
+            return BatchReport.Outcome.NOT_FOUND;
+        }
+        if (mutation.getType() == Mutation.Type.MODIFY) {
+            int existing = findRow(record.getKey());
+            if (existing != CourseStore.NO_ROW && existing != row) {
+                return BatchReport.Outcome.DUPLICATE;
+            }
+        }
+        removedStamps[removed.size()] = store.stamp(row);
+        removed.add(store.view(row));
+        remove(row);
+        if (mutation.getType() == Mutation.Type.MODIFY) {
+            insert(record);
+        }
+        return BatchReport.Outcome.APPLIED;
+    }
+    
+    // Undo applied mutations newest first: drop what each one inserted, restore what it removed
+    private void undo(List<Mutation> applied, List<CourseSelection> removed, long[] removedStamps) {
+        for (int i = applied.size() - 1; i >= 0; i--) {
+            Mutation mutation = applied.get(i);
+            if (mutation.getType() != Mutation.Type.DELETE) {
+                remove(findRow(mutation.getRecord().getKey()));
+            }
+            if (removed.get(i) != null) {
+                insert(removed.get(i));
+                store.setStamp(findRow(removed.get(i).getKey()), removedStamps[i]);
+            }
+        }
+    }
+    
+    // An existing order of the query's sort column is brought up to date so the planner can use it;
+    // a missing one is not built just for a query
+    private CourseColumn orderFor(CourseQuery query) {
+        CourseColumn column = query.getOrderBy();
+        return column != null && orders.containsKey(column) ? column : null;
+    }
+    
+    private CourseTotals totals(CourseTotals.GroupBy groupBy, long group) {
+        if (group < 0) {
+            return new CourseTotals("", 0, 0, 0);
+        }
+        return read(Metrics.Operation.TOTALS, () -> {
+            GroupTotals groups = totals.get(groupBy);
+            return new CourseTotals(groupLabel(groupBy, group), groups.count(group),
+                groups.creditSum(group), groups.hoursSum(group));
+        }, null);
+    }
+    
+    private String groupLabel(CourseTotals.GroupBy groupBy, long group) {
+        switch (groupBy) {
+            case STUDENT: return CourseStore.unpackStudentId((int) group);
+            case SEMESTER: return CourseStore.semesterGroupLabel((int) group);
+            case COURSE: return CourseStore.unpackCourseId((int) group);
+            case TYPE: return typeGroups.get((int) group);
+            default: return CourseStore.unpackStudentId((int) (group >>> 16)) + " "
+                + CourseStore.semesterGroupLabel((int) group & 0xFFFF);
+        }
+    }
+    
+    // Adjust every grouping of the aggregates for a row being added (+1) or removed (-1)
+    private void updateTotals(int row, int sign) {
+        double credit = store.credit(row);
+        int hours = store.hours(row);
+        int student = store.studentId(row);
+        int semester = store.semesterGroup(row);
+        int type = typeGroups.idOf(store.type(row).toLowerCase());
+        updateTotals(CourseTotals.GroupBy.STUDENT, student, credit, hours, sign);
+        updateTotals(CourseTotals.GroupBy.SEMESTER, semester, credit, hours, sign);
+        updateTotals(CourseTotals.GroupBy.COURSE, store.courseId(row), credit, hours, sign);
+        updateTotals(CourseTotals.GroupBy.TYPE, type, credit, hours, sign);
+        updateTotals(CourseTotals.GroupBy.STUDENT_SEMESTER, studentSemester(student, semester), credit, hours, sign);
+    }
+    
+    private void updateTotals(CourseTotals.GroupBy groupBy, long group, double credit, int hours, int sign) {
+        if (sign > 0) {
+            totals.get(groupBy).add(group, credit, hours);
+        } else {
+            totals.get(groupBy).remove(group, credit, hours);
+        }
+    }
+    
+    // Semester groups fit in 16 bits
+    private static long studentSemester(int studentId, int semesterGroup) {
+        return ((long) studentId << 16) | semesterGroup;
+    }
+    
+    private boolean isOrderReady(CourseColumn column) {
+        if (column == null) return true;
+        RowOrder order = orders.get(column);
+        return order != null && !order.isStale();
+    }
+    
+    // A new order starts stale, so its first refresh() sorts every live row
+    private RowOrder newOrder(CourseColumn column) {
+        RowOrder order = new RowOrder((a, b) -> store.compare(column, a, b), store::rows);
+        order.invalidate();
+        return order;
+    }
+    
+    // Changes of one write, oldest first: the packed key of each row inserted, and the record
+    // and stamp of each row removed
+    private static final class UndoLog {
+        private static final int RETAINED_CAPACITY = 1024;
+        private List<CourseSelection> records = new ArrayList<>();
+        // Key of an inserted row, or stamp of a removed one
+        private long[] values = new long[16];
+
+        void inserted(long key) {
+            add(null, key);
+        }
+
+        void removed(CourseSelection record, long stamp) {
+            add(record, stamp);
+        }
+
+        private void add(CourseSelection record, long value) {
+            int index = records.size();
+            if (index == values.length) {
+                values = Arrays.copyOf(values, index * 2);
+            }
+            records.add(record);
+            values[index] = value;
+        }
+
+        int size() {
+            return records.size();
+        }
+
+        // Null for an inserted row
+        CourseSelection record(int index) {
+            return records.get(index);
+        }
+
+        long value(int index) {
+            return values[index];
+        }
+
+        // Large logs are dropped rather than kept at their peak size
+        void clear() {
+            if (records.size() > RETAINED_CAPACITY) {
+                records = new ArrayList<>();
+                values = new long[16];
+            } else {
+                records.clear();
+            }
+        }
+    }
+    
+    // Rows in insertion order, resolved on demand; sequential get(i) follows one link per call
+    private final class LazyRows extends AbstractList<CourseSelection> {
+        private final int size = store.size();
+        private int position = -1;
+        private int row = RowBuckets.NONE;
+
+        @Override
+        public CourseSelection get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (index < position || position < 0) {
+                position = 0;
+                row = store.first();
+            }
+            while (position < index) {
+                row = store.next(row);
+                position++;
+            }
+            return store.view(row);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private List<CourseSelection> allViews() {
+        List<CourseSelection> all = new ArrayList<>(store.size());
+        int bound = store.rowLimit();
+        int visited = 0;
+        for (int row = store.first(); row != RowBuckets.NONE; row = store.next(row)) {
+            if (++visited > bound) throw new ConcurrentModificationException();
+            all.add(store.view(row));
+        }
+        return all;
+    }
+    
+    // Walk the insertion order to offset; cost grows with offset, not with the table
+    private List<CourseSelection> insertionPage(int offset, int limit) {
+        List<CourseSelection> page = new ArrayList<>(Math.max(0, Math.min(limit, store.size())));
+        int bound = store.rowLimit();
+        int skipped = 0;
+        int row = store.first();
+        while (row != RowBuckets.NONE && skipped < offset) {
+            row = store.next(row);
+            if (++skipped > bound) {
+                throw new ConcurrentModificationException();
+            }
+        }
+        for (; row != RowBuckets.NONE && page.size() < limit; row = store.next(row)) {
+            if (++skipped > bound) {
+                throw new ConcurrentModificationException();
+            }
+            page.add(store.view(row));
+        }
+        return page;
+    }
+    
+    private int findRow(SelectionKey key) {
+        return store.find(packKey(key));
+    }
+
+    // Whether a row already holds exactly this normalized record
+    private boolean sameRecord(int row, CourseSelection record) {
+        return store.studentName(row).equals(record.getStudentName())
+            && store.courseName(row).equals(record.getCourseName())
+            && store.hours(row) == record.getHours()
+            && Double.compare(store.credit(row), record.getCredit()) == 0
+            && store.type(row).equals(record.getType());
+    }
+    
+    private static long packKey(SelectionKey key) {
+        return CourseStore.packKey(key.getStudentId(), key.getCourseId(), key.getSemester());
+    }
+    
+    // Store a normalized, validated record and register its row in every secondary index;
+    // false when the key is taken. Caller holds the write lock.
+    private boolean insert(CourseSelection course) {
+        int row = store.add(course);
+        if (row == CourseStore.NO_ROW) {
+            return false;
+        }
+        // Stamped with the version the caller's commit() will publish
+        store.setStamp(row, version + 1);
+        if (mutationListener != null) {
+            undo.inserted(store.key(row));
+        }
+        rowsByStudent.add(store.studentId(row), row);
+        rowsBySemester.add(store.semesterGroup(row), row);
+        long pair = studentPair(row);
+        if (studentPairRows.put(pair, Math.max(0, studentPairRows.get(pair)) + 1) == LongIntMap.NO_VALUE) {
+            studentSearchIndex.add(pair, store.studentName(row), course.getStudentId());
+        }
+        for (RowOrder order : orders.values()) {
+            order.insert(row);
+        }
+        updateTotals(row, 1);
+        return true;
+    }
+    
+    // Unregister a row from every secondary index, then free it in the store. Caller holds the write lock.
+    private void remove(int row) {
+        if (mutationListener != null) {
+            undo.removed(store.view(row), store.stamp(row));
+        }
+        for (RowOrder order : orders.values()) {
+            order.remove(row);
+        }
+        updateTotals(row, -1);
+        rowsByStudent.remove(store.studentId(row), row);
+        rowsBySemester.remove(store.semesterGroup(row), row);
+        long pair = studentPair(row);
+        int remaining = studentPairRows.get(pair) - 1;
+        if (remaining == 0) {
+            studentPairRows.remove(pair);
+            studentSearchIndex.remove(pair);
+        } else {
+            studentPairRows.put(pair, remaining);
+        }
+        store.remove(row);
+    }
+    
+    private long studentPair(int row) {
+        return ((long) store.studentId(row) << 32) | store.studentNameId(row);
+    }
+    
+    private List<CourseSelection> views(RowBuckets index, long bucket) {
+        List<CourseSelection> results = new ArrayList<>(index.count(bucket));
+        int bound = store.rowLimit();
+        int visited = 0;
+        for (int row = index.first(bucket); row != RowBuckets.NONE; row = index.next(row)) {
+            if (++visited > bound) throw new ConcurrentModificationException();
+            results.add(store.view(row));
+        }
+        return results;
+    }
+    
+    private List<CourseSelection> views(int[] rows) {
+        List<CourseSelection> results = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            results.add(store.view(row));
+        }
+        return results;
+    }
+    
+    // Field validation is delegated to the headless Validator
+    private boolean isValidCourseSelection(CourseSelection course) {
+        return Validator.validate(course).isValid();
+    }
+}
@@ -0,0 +1,143 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A query over course selections for CourseManager.query(): conditions that must all hold,
+// an optional order, offset/limit and the columns to project.
+//   new CourseQuery()
+//       .where(CourseColumn.TYPE, CourseQuery.Operator.EQUALS, "exam")
+//       .where(CourseColumn.SEMESTER, CourseQuery.Operator.EQUALS, "2024-F")
+//       .where(CourseColumn.CREDIT, CourseQuery.Operator.GREATER, 3)
+//       .orderBy(CourseColumn.CREDIT, true)
+//       .limit(50);
+// Hours and credit take numbers; every other column takes a String. CONTAINS and equality on
+// names and type ignore case, as searchByStudent does; semester equality folds the case of the
+// term letter, as getCoursesBySemester does; IDs compare exactly. Range operators compare in
+// the same order as sorting by the column.
+public final class CourseQuery {
+    public enum Operator {
+        EQUALS("="), CONTAINS("contains"), LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    // One condition: column operator value
+    public static final class Condition {
+        private final CourseColumn column;
+        private final Operator operator;
+        private final Object value;
+
+        private Condition(CourseColumn column, Operator operator, Object value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public CourseColumn getColumn() {
+            return column;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return column + " " + operator + " " + value;
+        }
+    }
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private CourseColumn orderBy;
+    private boolean descending;
+    private int offset = 0;
+    private int limit = Integer.MAX_VALUE;
+    private List<CourseColumn> projection = Arrays.asList(CourseColumn.values());
+
+    public CourseQuery where(CourseColumn column, Operator operator, Object value) {
+        if (column == null || operator == null || value == null) {
+            throw new IllegalArgumentException("Column, operator and value are required");
+        }
+        if (isNumeric(column)) {
+            if (!(value instanceof Number) || operator == Operator.CONTAINS) {
+                throw new IllegalArgumentException(column + " takes a number and no CONTAINS");
+            }
+        } else if (!(value instanceof String)) {
+            throw new IllegalArgumentException(column + " takes a String");
+        }
+        conditions.add(new Condition(column, operator, value));
+        return this;
+    }
+
+    // lo <= column <= hi
+    public CourseQuery whereBetween(CourseColumn column, Object lo, Object hi) {
+        return where(column, Operator.GREATER_OR_EQUAL, lo).where(column, Operator.LESS_OR_EQUAL, hi);
+    }
+
+    // Null column keeps the order of the access path
+    public CourseQuery orderBy(CourseColumn column, boolean descending) {
+        this.orderBy = column;
+        this.descending = descending;
+        return this;
+    }
+
+    public CourseQuery offset(int offset) {
+        this.offset = Math.max(0, offset);
+        return this;
+    }
+
+    public CourseQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    // Columns returned by CourseManager.project(); all columns when none are given
+    public CourseQuery select(CourseColumn... columns) {
+        this.projection = columns.length == 0 ? Arrays.asList(CourseColumn.values()) : Arrays.asList(columns.clone());
+        return this;
+    }
+
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    public CourseColumn getOrderBy() {
+        return orderBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public List<CourseColumn> getProjection() {
+        return Collections.unmodifiableList(projection);
+    }
+
+    static boolean isNumeric(CourseColumn column) {
+        return column == CourseColumn.HOURS || column == CourseColumn.CREDIT;
+    }
+}
@@ -0,0 +1,195 @@
+package courseselection;
+
+
+
+public class CourseSelection {
+    // Number of comma-separated fields in the file format
+    public static final int FIELD_COUNT = 8;
+
+    private String studentId;
+    private String studentName;
+    private String courseId;
+    private String courseName;
+    private String semester;
+    private int hours;
+    private double credit;
+    private String type; // "exam" or "check"
+    private SelectionKey key; // cached composite key, reset when a key field changes
+
+    public CourseSelection(String studentId, String studentName, String courseId, 
+                          String courseName, String semester, int hours, 
+                          double credit, String type) {
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.courseId = courseId;
+        this.courseName = courseName;
+        this.semester = semester;
+        this.hours = hours;
+        this.credit = credit;
+        this.type = type;
+    }
+
+    // Getters
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+
+    public double getCredit() {
+        return credit;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    // Normalized (studentId, courseId, semester) key, computed once per key change
+    public SelectionKey getKey() {
+        SelectionKey k = key;
+        if (k == null) {
+            k = SelectionKey.of(studentId, courseId, semester);
+            key = k;
+        }
+        return k;
+    }
+
+    // Setters
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+        this.key = null;
+    }
+
+    public void setStudentName(String studentName) {
+        this.studentName = studentName;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+        this.key = null;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    public void setSemester(String semester) {
+        this.semester = semester;
+        this.key = null;
+    }
+
+    public void setHours(int hours) {
+        this.hours = hours;
+    }
+
+    public void setCredit(double credit) {
+        this.credit = credit;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    // Clean every text field and capitalize names.
+    // Called once when a record enters the store so later comparisons never re-normalize.
+    public void normalize() {
+        this.studentId = Normalizer.clean(studentId);
+        this.studentName = Normalizer.capitalizeWords(Normalizer.clean(studentName));
+        this.courseId = Normalizer.clean(courseId);
+        this.courseName = Normalizer.capitalizeWords(Normalizer.clean(courseName));
+        this.semester = Normalizer.clean(semester);
+        this.type = Normalizer.clean(type);
+        this.key = null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Student ID: %s, Name: %s, Course ID: %s, Course: %s, Semester: %s, " +
+            "Hours: %d, Credit: %.1f, Type: %s",
+            studentId, studentName, courseId, courseName, semester, hours, credit, type
+        );
+    }
+
+    // Format for file storage
+    public String toFileString() {
+        return String.format(
+            "%s,%s,%s,%s,%s,%d,%.1f,%s",
+            studentId, studentName, courseId, courseName, semester, hours, credit, type
+        );
+    }
+
+    // Format for the journal, snapshots and deltas: the toFileString() layout, but with the
+    // credit exact and the same in every locale (Double.toString), so it reads back unchanged
+    public String toStorageString() {
+        return studentId + "," + studentName + "," + courseId + "," + courseName + "," + semester
+            + "," + hours + "," + Double.toString(credit) + "," + type;
+    }
+
+    // Create from file string; a hand-written comma tokenizer with the same rules as
+    // split(","): exactly eight fields, where trailing empty fields do not count
+    public static CourseSelection fromFileString(String fileString) {
+        if (fileString == null) return null;
+        
+        int[] starts = new int[FIELD_COUNT];
+        int[] ends = new int[FIELD_COUNT];
+        int fieldStart = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            int comma = fileString.indexOf(',', fieldStart);
+            int fieldEnd = (comma < 0) ? fileString.length() : comma;
+            if (comma < 0 && field < FIELD_COUNT - 1) {
+                return null;
+            }
+            starts[field] = fieldStart;
+            ends[field] = fieldEnd;
+            fieldStart = fieldEnd + 1;
+        }
+        // The last field must be non-empty and anything after it may only be empty fields
+        if (ends[FIELD_COUNT - 1] == starts[FIELD_COUNT - 1]) {
+            return null;
+        }
+        for (int i = ends[FIELD_COUNT - 1]; i < fileString.length(); i++) {
+            if (fileString.charAt(i) != ',') return null;
+        }
+        
+        try {
+            return new CourseSelection(
+                field(fileString, starts[0], ends[0]),  // studentId
+                field(fileString, starts[1], ends[1]),  // studentName
+                field(fileString, starts[2], ends[2]),  // courseId
+                field(fileString, starts[3], ends[3]),  // courseName
+                field(fileString, starts[4], ends[4]),  // semester
+                Integer.parseInt(field(fileString, starts[5], ends[5])),  // hours
+                Double.parseDouble(field(fileString, starts[6], ends[6])),  // credit
+                field(fileString, starts[7], ends[7])   // type
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // Trimmed field text, taking a single substring
+    private static String field(String line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') start++;
+        while (end > start && line.charAt(end - 1) <= ' ') end--;
+        return line.substring(start, end);
+    }
+}
@@ -0,0 +1,48 @@
+package courseselection;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// Every selection of a CourseManager as of one version. It reads a frozen view of the store,
+// so taking it copies only the row ids, and reading it never blocks or is blocked by writers.
+// The list is unmodifiable and builds a detached record for each get(). Close the snapshot
+// when done: until then the manager cannot reuse the storage of deleted rows.
+public final class CourseSnapshot implements AutoCloseable {
+    private final long version;
+    private final CourseStore.Frozen rows;
+    private final List<CourseSelection> selections;
+
+    CourseSnapshot(long version, CourseStore.Frozen rows) {
+        this.version = version;
+        this.rows = rows;
+        this.selections = new AbstractList<CourseSelection>() {
+            @Override
+            public CourseSelection get(int index) {
+                return rows.view(index);
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Valid until close()
+    public List<CourseSelection> getSelections() {
+        return selections;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public void close() {
+        rows.release();
+    }
+}
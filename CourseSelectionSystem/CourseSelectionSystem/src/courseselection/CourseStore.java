@@ -0,0 +1,382 @@
+package courseselection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Struct-of-arrays storage for course selections: one primitive column per field instead of
+// an object with six Strings per row.
+//   studentId  int    the six digits as a number
+//   courseId   int    three letters (6 bits each, A-Z then a-z) and three digits (10 bits)
+//   semester   short  year * 4 + term (F, S, f, s), read as unsigned
+//   names      int    ids in a shared TextDictionary
+//   type       byte   id in a small TextDictionary
+//   stamp      long   manager version that last wrote the row
+// The three key columns pack into one long whose unsigned order equals SelectionKey order.
+// Rows are addressed by int id; ids of deleted rows are reused, except while a Frozen view is
+// open. CourseSelection objects are only built on demand by view().
+public class CourseStore {
+    public static final long NO_KEY = -1L;
+    public static final int NO_ROW = -1;
+    private static final long ORDER_BUCKET = 0;
+
+    private int[] studentIds = new int[16];
+    private int[] courseIds = new int[16];
+    private short[] semesters = new short[16];
+    private int[] studentNames = new int[16];
+    private int[] courseNames = new int[16];
+    private byte[] types = new byte[16];
+    private int[] hours = new int[16];
+    private double[] credits = new double[16];
+    private long[] stamps = new long[16];
+
+    private final TextDictionary names = new TextDictionary();
+    private final TextDictionary typeNames = new TextDictionary();
+    // Packed key -> row
+    private final LongIntMap rowsByKey = new LongIntMap();
+    // All live rows in insertion order
+    private final RowBuckets insertionOrder = new RowBuckets();
+    private int[] freeRows = new int[16];
+    private int freeRowCount = 0;
+    private int rowLimit = 0;
+    // Open Frozen views; while there are any, freed row ids are not handed out again
+    private final AtomicInteger frozenViews = new AtomicInteger();
+
+    // Store a normalized, validated record; NO_ROW when its key is taken or does not pack
+    public int add(CourseSelection course) {
+        long key = packKey(course.getStudentId(), course.getCourseId(), course.getSemester());
+        if (key == NO_KEY || rowsByKey.containsKey(key)) {
+            return NO_ROW;
+        }
+        int typeId = typeNames.idOf(course.getType());
+        if (typeId > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct course type spellings");
+        }
+
+        int row = allocateRow();
+        studentIds[row] = (int) (key >>> 44);
+        courseIds[row] = (int) (key >>> 16) & 0xFFFFFFF;
+        semesters[row] = (short) key;
+        studentNames[row] = names.idOf(course.getStudentName());
+        courseNames[row] = names.idOf(course.getCourseName());
+        types[row] = (byte) typeId;
+        hours[row] = course.getHours();
+        credits[row] = course.getCredit();
+        stamps[row] = 0;
+        rowsByKey.put(key, row);
+        insertionOrder.add(ORDER_BUCKET, row);
+        return row;
+    }
+
+    // Free a row; its column values stay readable until the id is reused by add
+    public void remove(int row) {
+        rowsByKey.remove(key(row));
+        insertionOrder.remove(ORDER_BUCKET, row);
+        if (freeRowCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRowCount * 2);
+        }
+        freeRows[freeRowCount++] = row;
+    }
+
+    public int find(long key) {
+        return key == NO_KEY ? NO_ROW : rowsByKey.get(key);
+    }
+
+    public int size() {
+        return rowsByKey.size();
+    }
+
+    // Exclusive upper bound of the row ids handed out so far
+    public int rowLimit() {
+        return rowLimit;
+    }
+
+    // Live rows in insertion order
+    public int first() {
+        return insertionOrder.first(ORDER_BUCKET);
+    }
+
+    public int next(int row) {
+        return insertionOrder.next(row);
+    }
+
+    public int[] rows() {
+        return insertionOrder.rows(ORDER_BUCKET);
+    }
+
+    // Materialize a row as a detached CourseSelection
+    public CourseSelection view(int row) {
+        return new CourseSelection(
+            unpackStudentId(studentIds[row]),
+            names.get(studentNames[row]),
+            unpackCourseId(courseIds[row]),
+            names.get(courseNames[row]),
+            unpackSemester(semesters[row] & 0xFFFF),
+            hours[row],
+            credits[row],
+            typeNames.get(types[row])
+        );
+    }
+
+    public long stamp(int row) {
+        return stamps[row];
+    }
+
+    public void setStamp(int row, long stamp) {
+        stamps[row] = stamp;
+    }
+
+    public long key(int row) {
+        return ((long) studentIds[row] << 44) | ((long) courseIds[row] << 16) | (semesters[row] & 0xFFFF);
+    }
+
+    public int studentId(int row) {
+        return studentIds[row];
+    }
+
+    public int studentNameId(int row) {
+        return studentNames[row];
+    }
+
+    public String studentName(int row) {
+        return names.get(studentNames[row]);
+    }
+
+    // Packed course ID; numeric order equals the order of the ID strings
+    public int courseId(int row) {
+        return courseIds[row];
+    }
+
+    public String courseName(int row) {
+        return names.get(courseNames[row]);
+    }
+
+    // Packed semester; numeric order equals the order of the semester strings
+    public int semester(int row) {
+        return semesters[row] & 0xFFFF;
+    }
+
+    // Semester with the term letter's case folded, so "2023-f" and "2023-F" share a group
+    public int semesterGroup(int row) {
+        int semester = semesters[row] & 0xFFFF;
+        return (semester >> 2) * 2 + (semester & 1);
+    }
+
+    public int hours(int row) {
+        return hours[row];
+    }
+
+    public double credit(int row) {
+        return credits[row];
+    }
+
+    public String type(int row) {
+        return typeNames.get(types[row]);
+    }
+
+    // A column's value as a CourseSelection would hold it: String, Integer or Double
+    public Object value(CourseColumn column, int row) {
+        switch (column) {
+            case STUDENT_ID: return unpackStudentId(studentIds[row]);
+            case STUDENT_NAME: return studentName(row);
+            case COURSE_ID: return unpackCourseId(courseIds[row]);
+            case COURSE_NAME: return courseName(row);
+            case SEMESTER: return unpackSemester(semester(row));
+            case HOURS: return hours[row];
+            case CREDIT: return credits[row];
+            default: return type(row);
+        }
+    }
+
+    // Order two rows by a column, then by key, so distinct rows never compare equal
+    public int compare(CourseColumn column, int a, int b) {
+        int c;
+        switch (column) {
+            case STUDENT_NAME: c = studentName(a).compareTo(studentName(b)); break;
+            case COURSE_ID: c = Integer.compare(courseIds[a], courseIds[b]); break;
+            case COURSE_NAME: c = courseName(a).compareTo(courseName(b)); break;
+            case SEMESTER: c = Integer.compare(semester(a), semester(b)); break;
+            case HOURS: c = Integer.compare(hours[a], hours[b]); break;
+            case CREDIT: c = Double.compare(credits[a], credits[b]); break;
+            case TYPE: c = type(a).compareTo(type(b)); break;
+            default: c = 0; // STUDENT_ID leads the key
+        }
+        return c != 0 ? c : Long.compareUnsigned(key(a), key(b));
+    }
+
+    // Fresh columns, so that open Frozen views keep reading the old ones
+    public void clear() {
+        studentIds = new int[16];
+        courseIds = new int[16];
+        semesters = new short[16];
+        studentNames = new int[16];
+        courseNames = new int[16];
+        types = new byte[16];
+        hours = new int[16];
+        credits = new double[16];
+        stamps = new long[16];
+        rowsByKey.clear();
+        insertionOrder.clear();
+        names.clear();
+        typeNames.clear();
+        freeRowCount = 0;
+        rowLimit = 0;
+    }
+
+    // Read-only view of the live rows as they are now, in insertion order. Call it while writes
+    // are held off; the view can then be read without any lock until it is released.
+    public Frozen freeze() {
+        frozenViews.incrementAndGet();
+        return new Frozen();
+    }
+
+    // Packed (studentId, courseId, semester) of cleaned values; NO_KEY if any does not fit the
+    // formats enforced by Validator
+    public static long packKey(String studentId, String courseId, String semester) {
+        int student = packStudentId(studentId);
+        int course = packCourseId(courseId);
+        int term = packSemester(semester);
+        if (student < 0 || course < 0 || term < 0) {
+            return NO_KEY;
+        }
+        return ((long) student << 44) | ((long) course << 16) | term;
+    }
+
+    public static int packStudentId(String id) {
+        if (!Validator.isValidStudentId(id)) return -1;
+        return Integer.parseInt(id);
+    }
+
+    // Case-folded semester group of a semester string, or -1
+    public static int semesterGroup(String semester) {
+        int packed = packSemester(semester);
+        return packed < 0 ? -1 : (packed >> 2) * 2 + (packed & 1);
+    }
+
+    // Semester label of a case-folded semester group, with the term letter in upper case
+    public static String semesterGroupLabel(int group) {
+        return unpackSemester((group >> 1) * 4 + (group & 1));
+    }
+
+    public static int packCourseId(String id) {
+        if (!Validator.isValidCourseId(id)) return -1;
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = id.charAt(i);
+            packed = (packed << 6) | (c <= 'Z' ? c - 'A' : c - 'a' + 26);
+        }
+        return (packed << 10) | Integer.parseInt(id.substring(3));
+    }
+
+    public static int packSemester(String semester) {
+        if (!Validator.isValidSemester(semester)) return -1;
+        int term = "FSfs".indexOf(semester.charAt(5));
+        return Integer.parseInt(semester.substring(0, 4)) * 4 + term;
+    }
+
+    public static String unpackStudentId(int id) {
+        char[] digits = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            digits[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(digits);
+    }
+
+    public static String unpackCourseId(int packed) {
+        char[] chars = new char[6];
+        int number = packed & 0x3FF;
+        for (int i = 5; i >= 3; i--) {
+            chars[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        for (int i = 2; i >= 0; i--) {
+            int letter = (packed >>> (10 + 6 * (2 - i))) & 0x3F;
+            chars[i] = (char) (letter < 26 ? 'A' + letter : 'a' + letter - 26);
+        }
+        return new String(chars);
+    }
+
+    // Key of a packed key, e.g. one logged for a row that has since been deleted
+    public static SelectionKey unpackKey(long key) {
+        return SelectionKey.of(unpackStudentId((int) (key >>> 44)), unpackCourseId((int) (key >>> 16) & 0xFFFFFFF),
+            unpackSemester((int) key & 0xFFFF));
+    }
+
+    private static String unpackSemester(int packed) {
+        int year = packed >> 2;
+        char[] chars = {
+            (char) ('0' + year / 1000), (char) ('0' + year / 100 % 10), (char) ('0' + year / 10 % 10),
+            (char) ('0' + year % 10), '-', "FSfs".charAt(packed & 3)
+        };
+        return new String(chars);
+    }
+
+    private int allocateRow() {
+        if (freeRowCount > 0 && frozenViews.get() == 0) {
+            return freeRows[--freeRowCount];
+        }
+        if (rowLimit == studentIds.length) {
+            int capacity = rowLimit + (rowLimit >> 1);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            semesters = Arrays.copyOf(semesters, capacity);
+            studentNames = Arrays.copyOf(studentNames, capacity);
+            courseNames = Arrays.copyOf(courseNames, capacity);
+            types = Arrays.copyOf(types, capacity);
+            hours = Arrays.copyOf(hours, capacity);
+            credits = Arrays.copyOf(credits, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+        return rowLimit++;
+    }
+
+    // The rows of one moment. The row list and the dictionaries are copied; the columns are
+    // shared, which is safe because writers only touch rows outside the list while the view is
+    // open: new rows never reuse a freed id (allocateRow), growth and clear() switch to new
+    // arrays, and a removed row keeps its values. Only the stamps change in place, and they
+    // are not part of a view.
+    public final class Frozen {
+        private final int[] rows = CourseStore.this.rows();
+        private final int[] studentIds = CourseStore.this.studentIds;
+        private final int[] courseIds = CourseStore.this.courseIds;
+        private final short[] semesters = CourseStore.this.semesters;
+        private final int[] studentNames = CourseStore.this.studentNames;
+        private final int[] courseNames = CourseStore.this.courseNames;
+        private final byte[] types = CourseStore.this.types;
+        private final int[] hours = CourseStore.this.hours;
+        private final double[] credits = CourseStore.this.credits;
+        private final String[] names = CourseStore.this.names.toArray();
+        private final String[] typeNames = CourseStore.this.typeNames.toArray();
+        private boolean released;
+
+        private Frozen() {
+        }
+
+        public int size() {
+            return rows.length;
+        }
+
+        // The index-th row as a detached CourseSelection
+        public CourseSelection view(int index) {
+            int row = rows[index];
+            return new CourseSelection(
+                unpackStudentId(studentIds[row]),
+                names[studentNames[row]],
+                unpackCourseId(courseIds[row]),
+                names[courseNames[row]],
+                unpackSemester(semesters[row] & 0xFFFF),
+                hours[row],
+                credits[row],
+                typeNames[types[row]]
+            );
+        }
+
+        // Let the store reuse freed row ids again; the view must not be read afterwards
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                frozenViews.decrementAndGet();
+            }
+        }
+    }
+}
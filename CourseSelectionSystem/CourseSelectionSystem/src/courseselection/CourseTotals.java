@@ -0,0 +1,41 @@
+package courseselection;
+
+// Totals of one group of selections: how many there are and their summed credit and hours
+public final class CourseTotals {
+    // Groupings maintained by CourseManager; semesters fold the case of the term letter
+    public enum GroupBy { STUDENT, SEMESTER, COURSE, TYPE, STUDENT_SEMESTER }
+
+    private final String group;
+    private final int count;
+    private final double creditSum;
+    private final long hoursSum;
+
+    CourseTotals(String group, int count, double creditSum, long hoursSum) {
+        this.group = group;
+        this.count = count;
+        this.creditSum = creditSum;
+        this.hoursSum = hoursSum;
+    }
+
+    // e.g. "000123", "2023-F", "CSC101", "exam" or "000123 2023-F"
+    public String getGroup() {
+        return group;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getCreditSum() {
+        return creditSum;
+    }
+
+    public long getHoursSum() {
+        return hoursSum;
+    }
+
+    @Override
+    public String toString() {
+        return group + ": " + count + " courses, " + creditSum + " credits, " + hoursSum + " hours";
+    }
+}
@@ -0,0 +1,491 @@
+package courseselection;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.List;
+
+// Seeded, deterministic synthetic enrollment data for scale and load tests.
+//   new DatasetGenerator().rows(5_000_000).seed(7).students(400_000, 0.4).courses(3_000, 0.9)
+//       .duplicateRate(0.01).malformedRate(0.005).write(Paths.get("courses.txt"));
+// Rows follow the Validator rules unless deliberately malformed. Students and courses are
+// drawn from Zipf distributions (exponent 0 is uniform), so popular courses fill up and the same
+// students come back every term; a course always has the same name, hours, credit and type, and
+// a student the same name. Semesters favour recent years (yearSkew) and split between fall and
+// spring by fallShare. Duplicates repeat an earlier row, half exactly and half with the same key
+// but other hours and credit. Draws are independent, so a key also repeats by chance: about 0.2%
+// of rows with the default skews, several percent once both exceed 0.6. Malformed rows break one
+// field, or in text add a stray comma.
+// Row i depends only on the seed and i, so rows() is a lazy list that is never held in memory
+// and write() streams it: text through CourseExporter, *.gz compressed, *.bin in the binary format.
+public final class DatasetGenerator {
+    private static final int MAX_STUDENTS = 1_000_000;
+    private static final String[] DEPARTMENTS = {
+        "ACC", "ANT", "ARC", "ART", "AST", "BIO", "BUS", "CHE", "CHI", "CIV",
+        "CSC", "DAN", "ECO", "EDU", "EEE", "ENG", "ENV", "FIN", "FRE", "GEO",
+        "GER", "HIS", "JPN", "LAW", "LIN", "MAT", "MEC", "MED", "MUS", "NUR",
+        "PHI", "PHY", "POL", "PSY", "REL", "SOC", "SPA", "STA", "THE", "ZOO"
+    };
+    private static final int MAX_COURSES = DEPARTMENTS.length * 900;
+    private static final String[] SUBJECTS = {
+        "Introduction to", "Principles of", "Topics in", "Advanced", "Applied", "Foundations of",
+        "Seminar in", "Methods in", "History of", "Theory of"
+    };
+    private static final String[] FIELDS = {
+        "Accounting", "Anthropology", "Architecture", "Painting", "Astronomy", "Biology", "Management",
+        "Chemistry", "Chinese", "Structures", "Computing", "Dance", "Economics", "Teaching",
+        "Circuits", "Literature", "Ecology", "Finance", "French", "Geography", "German", "History",
+        "Japanese", "Law", "Linguistics", "Mathematics", "Mechanics", "Medicine", "Music", "Nursing",
+        "Philosophy", "Physics", "Politics", "Psychology", "Religion", "Sociology", "Spanish",
+        "Statistics", "Drama", "Zoology"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Ann", "Ben", "Chloe", "David", "Emma", "Felix", "Grace", "Hugo", "Iris", "Jack", "Kate",
+        "Liam", "Mia", "Noah", "Olivia", "Paul", "Quinn", "Rose", "Sam", "Tara", "Uma", "Victor",
+        "Wen", "Xavier", "Yara", "Zoe", "Ahmed", "Bianca", "Carlos", "Dana", "Elif", "Farah",
+        "Gabriel", "Hana", "Ivan", "Jun", "Kofi", "Lena", "Mateo", "Nadia", "Omar", "Priya"
+    };
+    private static final String[] LAST_NAMES = {
+        "Lee", "Smith", "Chen", "Garcia", "Brown", "Wang", "Jones", "Miller", "Davis", "Wilson",
+        "Moore", "Taylor", "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Hill", "Scott",
+        "Green", "Adams", "Baker", "Nelson", "Carter", "Mitchell", "Perez", "Roberts", "Turner",
+        "Phillips", "Nguyen", "Kim", "Patel", "Singh", "Khan", "Ali", "Silva", "Rossi", "Novak",
+        "Kowalski", "Ivanova", "Sato", "Tanaka", "Okafor", "Mensah", "Haddad", "O'Brien", "Dubois"
+    };
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private long rows = 1_000_000;
+    private long seed = 1;
+    private int students = 100_000;
+    private double studentSkew = 0.3;
+    private int courses = 2_000;
+    private double courseSkew = 0.8;
+    private int firstYear = 2015;
+    private int lastYear = 2024;
+    private double yearSkew = 0.5;
+    private double fallShare = 0.5;
+    private double examShare = 0.6;
+    private double[] credits = {1, 1.5, 2, 2.5, 3, 4, 5};
+    private double[] creditWeights = {1, 1, 3, 2, 4, 2, 1};
+    private int hoursPerCredit = 16;
+    private double duplicateRate = 0.01;
+    private double malformedRate = 0.005;
+
+    public DatasetGenerator rows(long rows) {
+        if (rows < 0 || rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rows must be between 0 and " + Integer.MAX_VALUE);
+        }
+        this.rows = rows;
+        return this;
+    }
+
+    public DatasetGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Number of distinct students and the Zipf exponent of how often each one enrols
+    public DatasetGenerator students(int count, double skew) {
+        if (count < 1 || count > MAX_STUDENTS || skew < 0) {
+            throw new IllegalArgumentException("Students must be 1.." + MAX_STUDENTS + " with a skew >= 0");
+        }
+        this.students = count;
+        this.studentSkew = skew;
+        return this;
+    }
+
+    // Size of the course catalogue and the Zipf exponent of course popularity
+    public DatasetGenerator courses(int count, double skew) {
+        if (count < 1 || count > MAX_COURSES || skew < 0) {
+            throw new IllegalArgumentException("Courses must be 1.." + MAX_COURSES + " with a skew >= 0");
+        }
+        this.courses = count;
+        this.courseSkew = skew;
+        return this;
+    }
+
+    // Years first..last; the newest year is the most frequent when yearSkew > 0
+    public DatasetGenerator semesters(int firstYear, int lastYear, double yearSkew, double fallShare) {
+        if (firstYear < 1000 || lastYear > 9999 || firstYear > lastYear || yearSkew < 0
+                || fallShare < 0 || fallShare > 1) {
+            throw new IllegalArgumentException("Years must be four digits in order, skew >= 0 and fall share in 0..1");
+        }
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.yearSkew = yearSkew;
+        this.fallShare = fallShare;
+        return this;
+    }
+
+    // Share of courses assessed by exam rather than check
+    public DatasetGenerator examShare(double share) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Exam share must be in 0..1");
+        }
+        this.examShare = share;
+        return this;
+    }
+
+    // Credit values a course can have with their relative weights; hours are credit * hoursPerCredit
+    public DatasetGenerator credits(double[] values, double[] weights, int hoursPerCredit) {
+        if (values.length == 0 || values.length != weights.length || hoursPerCredit < 1) {
+            throw new IllegalArgumentException("Give one weight per credit value and hours per credit >= 1");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!(values[i] > 0) || !(weights[i] >= 0) || values[i] * hoursPerCredit < 1) {
+                throw new IllegalArgumentException("Credit values must be positive, weights non-negative");
+            }
+        }
+        this.credits = values.clone();
+        this.creditWeights = weights.clone();
+        this.hoursPerCredit = hoursPerCredit;
+        return this;
+    }
+
+    public DatasetGenerator duplicateRate(double rate) {
+        this.duplicateRate = rate;
+        return checkRates();
+    }
+
+    public DatasetGenerator malformedRate(double rate) {
+        this.malformedRate = rate;
+        return checkRates();
+    }
+
+    // All rows as a lazy, read-only list: get(i) computes row i, equal on every call
+    public List<CourseSelection> rows() {
+        return new Rows(new Sampler(this));
+    }
+
+    // Write the rows to path in the format its name selects; returns the bytes written
+    public long write(Path path, CourseExporter.Progress progress) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String name = path.getFileName().toString();
+        if (name.endsWith(".bin")) {
+            CourseBinaryFormat.write(rows(), path);
+            return Files.size(path);
+        }
+        return CourseExporter.write(rows().iterator(), path, name.endsWith(".gz"), progress).getBytes();
+    }
+
+    public long write(Path path) throws IOException {
+        return write(path, null);
+    }
+
+    // java DatasetGenerator <file> [rows=N] [seed=N] [students=N] [studentSkew=X] [courses=N]
+    //   [courseSkew=X] [firstYear=N] [lastYear=N] [yearSkew=X] [fallShare=X] [examShare=X]
+    //   [duplicateRate=X] [malformedRate=X]
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java DatasetGenerator <file.txt|file.gz|file.bin> [name=value ...]");
+            System.exit(2);
+        }
+        DatasetGenerator generator = new DatasetGenerator();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                generator.set(args[i]);
+            }
+            long start = System.nanoTime();
+            long bytes = generator.write(Paths.get(args[0]));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%,d rows, %,d bytes in %.2f s (%,.0f rows/s)%n",
+                generator.rows, bytes, seconds, generator.rows / seconds);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Generation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void set(String setting) {
+        int eq = setting.indexOf('=');
+        if (eq < 0) {
+            throw new IllegalArgumentException("Expected name=value: " + setting);
+        }
+        String name = setting.substring(0, eq);
+        String value = setting.substring(eq + 1);
+        try {
+            switch (name) {
+                case "rows": rows(Long.parseLong(value)); break;
+                case "seed": seed(Long.parseLong(value)); break;
+                case "students": students(Integer.parseInt(value), studentSkew); break;
+                case "studentSkew": students(students, Double.parseDouble(value)); break;
+                case "courses": courses(Integer.parseInt(value), courseSkew); break;
+                case "courseSkew": courses(courses, Double.parseDouble(value)); break;
+                case "firstYear": semesters(Integer.parseInt(value), lastYear, yearSkew, fallShare); break;
+                case "lastYear": semesters(firstYear, Integer.parseInt(value), yearSkew, fallShare); break;
+                case "yearSkew": semesters(firstYear, lastYear, Double.parseDouble(value), fallShare); break;
+                case "fallShare": semesters(firstYear, lastYear, yearSkew, Double.parseDouble(value)); break;
+                case "examShare": examShare(Double.parseDouble(value)); break;
+                case "duplicateRate": duplicateRate(Double.parseDouble(value)); break;
+                case "malformedRate": malformedRate(Double.parseDouble(value)); break;
+                default: throw new IllegalArgumentException("Unknown setting: " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + setting);
+        }
+    }
+
+    private DatasetGenerator checkRates() {
+        if (duplicateRate < 0 || malformedRate < 0 || duplicateRate + malformedRate > 1) {
+            throw new IllegalArgumentException("Duplicate and malformed rates must be >= 0 and sum to at most 1");
+        }
+        return this;
+    }
+
+    private static final class Rows extends AbstractList<CourseSelection> {
+        private final Sampler sampler;
+
+        Rows(Sampler sampler) {
+            this.sampler = sampler;
+        }
+
+        @Override
+        public CourseSelection get(int index) {
+            if (index < 0 || index >= sampler.rows) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sampler.rows);
+            }
+            return sampler.row(index);
+        }
+
+        @Override
+        public int size() {
+            return (int) sampler.rows;
+        }
+    }
+
+    // The settings frozen into lookup tables: alias tables to sample from, the fixed attributes
+    // of every course and the strings rows are assembled from
+    private static final class Sampler {
+        private static final int NORMAL = 0;
+        private static final int DUPLICATE = 1;
+        private static final int MALFORMED = 2;
+        // Row content draws from its own stream, so whether a row is special does not change it
+        private static final long CONTENT_SALT = 0x5DEECE66DL;
+
+        private final long rows;
+        private final long seed;
+        private final double duplicateRate;
+        private final double malformedRate;
+        private final double fallShare;
+        private final int hoursPerCredit;
+        private final Alias studentDraw;
+        private final Alias courseDraw;
+        private final Alias yearDraw;
+        // Index years back * 2 + (fall ? 0 : 1)
+        private final String[] semesters;
+        // Every first name and last name combination
+        private final String[] studentNames;
+        private final String[] courseIds;
+        private final String[] courseNames;
+        private final int[] courseHours;
+        private final double[] courseCredits;
+        private final String[] courseTypes;
+
+        Sampler(DatasetGenerator settings) {
+            rows = settings.rows;
+            seed = settings.seed;
+            duplicateRate = settings.duplicateRate;
+            malformedRate = settings.malformedRate;
+            fallShare = settings.fallShare;
+            hoursPerCredit = settings.hoursPerCredit;
+            studentDraw = new Alias(zipf(settings.students, settings.studentSkew));
+            courseDraw = new Alias(zipf(settings.courses, settings.courseSkew));
+            // Rank 0 is the newest year
+            int years = settings.lastYear - settings.firstYear + 1;
+            yearDraw = new Alias(zipf(years, settings.yearSkew));
+            Alias creditDraw = new Alias(settings.creditWeights);
+
+            semesters = new String[years * 2];
+            for (int back = 0; back < years; back++) {
+                semesters[back * 2] = (settings.lastYear - back) + "-F";
+                semesters[back * 2 + 1] = (settings.lastYear - back) + "-S";
+            }
+            studentNames = new String[FIRST_NAMES.length * LAST_NAMES.length];
+            for (int i = 0; i < studentNames.length; i++) {
+                studentNames[i] = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i / FIRST_NAMES.length];
+            }
+
+            courseIds = new String[settings.courses];
+            courseNames = new String[settings.courses];
+            courseHours = new int[settings.courses];
+            courseCredits = new double[settings.courses];
+            courseTypes = new String[settings.courses];
+            for (int c = 0; c < settings.courses; c++) {
+                // Popularity ranks run through the departments, so every department has popular courses
+                int department = c % DEPARTMENTS.length;
+                int number = 100 + c / DEPARTMENTS.length;
+                long h = mix(seed ^ mix(c + 0x1000_0000L));
+                courseIds[c] = DEPARTMENTS[department] + number;
+                courseNames[c] = SUBJECTS[(int) Long.remainderUnsigned(h, SUBJECTS.length)] + " "
+                    + FIELDS[department] + " " + number;
+                double credit = settings.credits[creditDraw.sample(unit(mix(h)))];
+                courseCredits[c] = credit;
+                courseHours[c] = (int) Math.round(credit * settings.hoursPerCredit);
+                courseTypes[c] = unit(mix(h + GOLDEN)) < settings.examShare ? "exam" : "check";
+            }
+        }
+
+        CourseSelection row(long i) {
+            switch (kind(i)) {
+                case DUPLICATE:
+                    return duplicate(i);
+                case MALFORMED:
+                    return malformed(i);
+                default:
+                    return content(i);
+            }
+        }
+
+        private int kind(long i) {
+            double u = unit(mix(seed + i * GOLDEN));
+            if (u < malformedRate) return MALFORMED;
+            return u < malformedRate + duplicateRate && i > 0 ? DUPLICATE : NORMAL;
+        }
+
+        private CourseSelection content(long i) {
+            long state = mix(seed ^ CONTENT_SALT) + i * GOLDEN;
+            int student = studentDraw.sample(unit(mix(state += GOLDEN)));
+            int course = courseDraw.sample(unit(mix(state += GOLDEN)));
+            int yearsBack = yearDraw.sample(unit(mix(state += GOLDEN)));
+            boolean fall = unit(mix(state + GOLDEN)) < fallShare;
+
+            return new CourseSelection(studentId(student), studentName(student), courseIds[course],
+                courseNames[course], semesters[yearsBack * 2 + (fall ? 0 : 1)], courseHours[course],
+                courseCredits[course], courseTypes[course]);
+        }
+
+        // An earlier normal row again, exactly or with the same key and other hours and credit
+        private CourseSelection duplicate(long i) {
+            long h = mix(seed ^ mix(i ^ GOLDEN));
+            long earlier = Long.remainderUnsigned(h, i);
+            for (int attempt = 0; attempt < 8 && kind(earlier) != NORMAL; attempt++) {
+                h = mix(h + GOLDEN);
+                earlier = Long.remainderUnsigned(h, i);
+            }
+            CourseSelection copy = content(earlier);
+            if ((h >>> 63) != 0) {
+                copy.setCredit(copy.getCredit() + 0.5);
+                copy.setHours(copy.getHours() + Math.max(1, hoursPerCredit / 2));
+            }
+            return copy;
+        }
+
+        // A normal row with one field broken in a way Validator or the parser rejects
+        private CourseSelection malformed(long i) {
+            CourseSelection row = content(i);
+            long h = mix(seed ^ mix(i + GOLDEN));
+            switch ((int) Long.remainderUnsigned(h, 8)) {
+                case 0: row.setStudentId(row.getStudentId().substring(1)); break;
+                case 1: row.setCourseId(row.getCourseId().substring(0, 2) + "1" + row.getCourseId().substring(3)); break;
+                case 2: row.setSemester(row.getSemester().substring(0, 5) + "W"); break;
+                case 3: row.setHours(0); break;
+                case 4: row.setCredit(-row.getCredit()); break;
+                case 5: row.setType("quiz"); break;
+                case 6: row.setStudentName(""); break;
+                default: row.setStudentName(row.getStudentName().replace(' ', ',')); break;
+            }
+            return row;
+        }
+
+        // Six-digit IDs spread over the whole range: 7919 is coprime with 10^6, so distinct
+        // students get distinct IDs
+        private String studentId(int student) {
+            int id = (int) ((student * 7919L + 100_003L) % MAX_STUDENTS);
+            byte[] digits = new byte[6];
+            for (int i = 5; i >= 0; i--) {
+                digits[i] = (byte) ('0' + id % 10);
+                id /= 10;
+            }
+            return new String(digits, StandardCharsets.ISO_8859_1);
+        }
+
+        private String studentName(int student) {
+            long h = mix(seed ^ mix(student + 0x2000_0000L));
+            return studentNames[(int) Long.remainderUnsigned(h, studentNames.length)];
+        }
+
+        private static double[] zipf(int n, double exponent) {
+            double[] weights = new double[n];
+            for (int rank = 0; rank < n; rank++) {
+                weights[rank] = exponent == 0 ? 1 : Math.pow(rank + 1, -exponent);
+            }
+            return weights;
+        }
+    }
+
+    // Walker's alias method: one uniform draw picks an index with probability proportional to
+    // its weight in constant time, whatever the number of weights
+    private static final class Alias {
+        private final double[] keep;
+        private final int[] alias;
+
+        Alias(double[] weights) {
+            int n = weights.length;
+            double sum = 0;
+            for (double weight : weights) {
+                sum += weight;
+            }
+            if (!(sum > 0)) {
+                throw new IllegalArgumentException("Weights must not all be zero");
+            }
+            keep = new double[n];
+            alias = new int[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                keep[i] = weights[i] * n / sum;
+                alias[i] = i;
+                if (keep[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[largeCount - 1];
+                alias[less] = more;
+                keep[more] -= 1 - keep[less];
+                if (keep[more] < 1) {
+                    largeCount--;
+                    small[smallCount++] = more;
+                }
+            }
+            // Whatever is left is 1 up to rounding
+            while (largeCount > 0) {
+                keep[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                keep[small[--smallCount]] = 1;
+            }
+        }
+
+        // u in [0, 1): its integer part over n picks a column, the fraction decides between
+        // the column and its alias
+        int sample(double u) {
+            double x = u * keep.length;
+            int column = Math.min((int) x, keep.length - 1);
+            return x - column < keep[column] ? column : alias[column];
+        }
+    }
+
+    // SplitMix64 finalizer: a well-mixed 64-bit hash of z
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform double in [0, 1) from the top 53 bits
+    private static double unit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+}
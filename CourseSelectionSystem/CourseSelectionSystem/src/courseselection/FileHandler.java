@@ -0,0 +1,799 @@
+package courseselection;
+
+
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class FileHandler {
+    private static final String DATA_DIR = "data";
+    private static final String DATA_FILE_NAME = "courses.txt";
+    private static final int BACKUP_GENERATIONS = Integer.getInteger("courses.backup.generations", 5);
+    // Journal fsync policy: 0 forces every committed batch, otherwise the group-commit interval in ms
+    private static final long JOURNAL_SYNC_MILLIS = Long.getLong("courses.journal.syncMillis", 0L);
+    // Snapshot format; loading detects either, so switching needs no conversion step
+    private static final boolean BINARY_STORAGE = "binary".equalsIgnoreCase(System.getProperty("courses.storage.format"));
+    private static final String BINARY_EXTENSION = ".bin";
+    // Text exports to *.gz are compressed; compressed input is recognised by its header
+    private static final String GZIP_EXTENSION = ".gz";
+    // Delta files: a "#delta,<epoch>,<fromVersion>,<toVersion>,<full|changes>" header, then
+    // "U,<record>" per inserted or updated record and "D,<studentId>,<courseId>,<semester>" per
+    // tombstone, records in the toStorageString() format so credits survive in any locale
+    private static final String DELTA_HEADER = "#delta";
+    // Rows held in memory at once by the streaming import
+    private static final int IMPORT_BATCH_SIZE = 10_000;
+    // Rows exportSnapshot writes between checks for cancellation
+    private static final int CANCEL_CHECK_ROWS = 1024;
+    // "#manifest2,<size>,<crc32c hex>" of the snapshot saveData last wrote; while the data file
+    // still matches it, its rows are the manager's own and are loaded without re-validation.
+    // "#manifest" ones came from snapshots that rounded credits to one decimal, and are ignored.
+    private static final String MANIFEST_HEADER = "#manifest2";
+    private static final long CHECKSUM_REGION = 64L << 20;
+    // Part of loadInto's progress spent reading files; inserting the rows takes the rest
+    private static final double LOAD_READ_SHARE = 0.5;
+
+    private final String dataDir;
+    private final String dataFile;
+    // Single-copy backup written by earlier versions; still honoured by restoreFromBackup
+    private final String backupFile;
+    private final String backupDir;
+    private final String journalFile;
+    private final String manifestFile;
+    private MutationJournal journal;
+    private BackupStore backupStore;
+    // Keeps a checkpoint's manifest and backup paired with the data file it wrote
+    private final Object checkpointLock = new Object();
+
+    public FileHandler() {
+        this(DATA_DIR);
+    }
+
+    // Keeps its files in dataDir instead of ./data, e.g. a test's temporary directory
+    FileHandler(String dataDir) {
+        this.dataDir = dataDir;
+        this.dataFile = dataDir + "/" + DATA_FILE_NAME;
+        this.backupFile = dataDir + "/courses_backup.txt";
+        this.backupDir = dataDir + "/backups";
+        this.journalFile = dataDir + "/courses.journal";
+        this.manifestFile = dataDir + "/courses.manifest";
+        ensureDataDirectoryExists();
+        createBackup();
+    }
+
+    private void ensureDataDirectoryExists() {
+        File directory = new File(dataDir);
+       if (!directory.exists() && !directory.mkdirs()) {
+    System.err.println("Warning: Failed to create data directory");
+}
+    }
+
+    // New backup generation of the data file; only changed chunks are written and an
+    // unchanged file adds no generation at all
+    private void createBackup() {
+        if (new File(dataFile).exists()) {
+            try {
+                getBackupStore().backup(Paths.get(dataFile));
+            } catch (IOException e) {
+                System.err.println("Failed to create backup: " + e.getMessage());
+            }
+        }
+    }
+
+    private BackupStore getBackupStore() throws IOException {
+        if (backupStore == null) {
+            backupStore = new BackupStore(Paths.get(backupDir), BACKUP_GENERATIONS);
+        }
+        return backupStore;
+    }
+
+    public List<CourseSelection> importFromFile(String filePath) {
+        if (!fileExists(filePath)) {
+            System.err.println("File not found: " + filePath);
+            Metrics.failed(Metrics.Operation.FILE_IMPORT);
+            return new ArrayList<>();
+        }
+
+        long started = Metrics.start();
+        try {
+            List<CourseSelection> courses = readCourses(Paths.get(filePath));
+            Metrics.add(Metrics.Counter.BYTES_READ, Files.size(Paths.get(filePath)));
+            Metrics.add(Metrics.Counter.ROWS_PARSED, courses.size());
+            return courses;
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.FILE_IMPORT);
+            return new ArrayList<>();
+        } finally {
+            Metrics.record(Metrics.Operation.FILE_IMPORT, started);
+        }
+    }
+
+    private static List<CourseSelection> readCourses(Path path) throws IOException {
+        // Binary files are recognised by their magic number, whatever their name
+        if (CourseBinaryFormat.isBinary(path)) {
+            return CourseBinaryFormat.read(path);
+        }
+        if (isGzip(path)) {
+            return readGzip(path);
+        }
+        // Chunk-parallel parse; see CourseFileParser
+        return CourseFileParser.parse(path);
+    }
+
+    // Stream a file into the manager in bounded batches: parse, validate, dedupe and insert
+    // IMPORT_BATCH_SIZE rows at a time. progress receives the fraction of bytes consumed after
+    // each batch; cancelled is polled between batches. Rows already inserted stay on cancel,
+    // and when a read error stops the import, which then marks the report failed.
+    public ImportReport importStreaming(String filePath, CourseManager manager,
+                                        DoubleConsumer progress, BooleanSupplier cancelled) {
+        ImportReport report = new ImportReport();
+        if (!fileExists(filePath)) {
+            System.err.println("File not found: " + filePath);
+            Metrics.failed(Metrics.Operation.FILE_IMPORT);
+            report.markFailed("File not found: " + filePath);
+            return report;
+        }
+        long started = Metrics.start();
+        try {
+            if (CourseBinaryFormat.isBinary(Paths.get(filePath))) {
+                return importBinary(filePath, manager, progress, cancelled, report);
+            }
+            return importText(filePath, manager, progress, cancelled, report);
+        } finally {
+            Metrics.record(Metrics.Operation.FILE_IMPORT, started);
+        }
+    }
+
+    private ImportReport importText(String filePath, CourseManager manager, DoubleConsumer progress,
+                                    BooleanSupplier cancelled, ImportReport report) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(textInput(Paths.get(filePath), channel), StandardCharsets.UTF_8))) {
+            // Compressed input reports progress by compressed bytes consumed
+            long totalBytes = Math.max(1, channel.size());
+            List<CourseSelection> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            int lineNumber = 0;
+            int rejected = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                // Validated here, where the line number is known, and not again by the manager
+                CourseSelection course = CourseSelection.fromFileString(line);
+                ValidationResult validation = Validator.validate(course, lineNumber);
+                if (!validation.isValid()) {
+                    report.recordInvalid(validation);
+                    rejected++;
+                } else {
+                    batch.add(course);
+                }
+
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    manager.importValidated(batch, report);
+                    batch.clear();
+                    progress.accept(Math.min(1.0, (double) channel.position() / totalBytes));
+                    if (cancelled.getAsBoolean()) {
+                        report.markCancelled();
+                        countRead(channel.position(), lineNumber, rejected);
+                        return report;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                manager.importValidated(batch, report);
+            }
+            progress.accept(1.0);
+            countRead(channel.position(), lineNumber, rejected);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.FILE_IMPORT);
+            report.markFailed("Error reading file: " + e.getMessage());
+        }
+        return report;
+    }
+
+    // Rows rejected here failed validation before reaching the manager, which counts its own
+    private static void countRead(long bytes, int lines, int rejected) {
+        Metrics.add(Metrics.Counter.BYTES_READ, bytes);
+        Metrics.add(Metrics.Counter.ROWS_PARSED, lines);
+        Metrics.add(Metrics.Counter.ROWS_REJECTED, rejected);
+    }
+
+    // Binary files are streamed one checksummed page at a time and fed to the manager in the
+    // same bounded batches as text; progress counts rows instead of bytes. A damaged page stops
+    // the import and fails the report; rows of the pages before it stay imported, as with a bad
+    // text file.
+    private ImportReport importBinary(String filePath, CourseManager manager, DoubleConsumer progress,
+                                      BooleanSupplier cancelled, ImportReport report) {
+        long[] read = {0, 0};  // rows, bytes
+        try {
+            boolean finished = CourseBinaryFormat.readPages(Paths.get(filePath), (rows, bytesRead, totalRows) -> {
+                read[1] = bytesRead;
+                for (int from = 0; from < rows.size(); from += IMPORT_BATCH_SIZE) {
+                    int to = Math.min(rows.size(), from + IMPORT_BATCH_SIZE);
+                    manager.importBatch(rows.subList(from, to), (int) (read[0] + from + 1), report);
+                    progress.accept((double) (read[0] + to) / totalRows);
+                    if (read[0] + to < totalRows && cancelled.getAsBoolean()) {
+                        read[0] += to;
+                        return false;
+                    }
+                }
+                read[0] += rows.size();
+                return true;
+            });
+            if (finished) {
+                progress.accept(1.0);
+            } else {
+                report.markCancelled();
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.FILE_IMPORT);
+            report.markFailed("Error reading file: " + e.getMessage());
+        }
+        countRead(read[1], (int) read[0], 0);
+        return report;
+    }
+
+    // Files named *.bin are written in the binary format, *.gz as compressed text, anything else as text
+    public boolean exportToFile(List<CourseSelection> courses, String filePath) {
+        long started = Metrics.start();
+        boolean success = writeCourses(courses, filePath, filePath.endsWith(BINARY_EXTENSION), false);
+        Metrics.record(Metrics.Operation.FILE_EXPORT, started);
+        if (!success) {
+            Metrics.failed(Metrics.Operation.FILE_EXPORT);
+        }
+        return success;
+    }
+
+    // Export rows that are read one at a time, e.g. the lazy list of a CourseManager.snapshot(),
+    // in the format exportToFile picks from the name. Text is streamed in constant memory.
+    // cancelled is polled every CANCEL_CHECK_ROWS rows. A cancelled or failed export deletes
+    // the partial file and returns null.
+    public CourseExporter.Result exportSnapshot(List<CourseSelection> courses, String filePath,
+                                                CourseExporter.Progress progress, BooleanSupplier cancelled) {
+        if (courses == null) {
+            return null;
+        }
+        long started = Metrics.start();
+        Path path = Paths.get(filePath);
+        List<CourseSelection> rows = cancellable(courses, cancelled);
+        try {
+            new File(filePath).getAbsoluteFile().getParentFile().mkdirs();
+            CourseExporter.Result result;
+            if (filePath.endsWith(BINARY_EXTENSION)) {
+                CourseBinaryFormat.write(rows, path);
+                long bytes = Files.size(path);
+                result = new CourseExporter.Result(rows.size(), bytes, bytes);
+                if (progress != null) {
+                    progress.update(result.getRows(), bytes);
+                }
+            } else {
+                result = CourseExporter.write(rows.iterator(), path, filePath.endsWith(GZIP_EXTENSION), progress);
+            }
+            Metrics.add(Metrics.Counter.BYTES_WRITTEN, result.getBytes());
+            return result;
+        } catch (CancellationException e) {
+            System.err.println("Export cancelled: " + filePath);
+            deletePartial(path);
+            return null;
+        } catch (IOException e) {
+            System.err.println("Error writing to file: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.FILE_EXPORT);
+            deletePartial(path);
+            return null;
+        } finally {
+            Metrics.record(Metrics.Operation.FILE_EXPORT, started);
+        }
+    }
+
+    // The rows of courses, throwing CancellationException from get() once cancelled reports true
+    private static List<CourseSelection> cancellable(List<CourseSelection> courses, BooleanSupplier cancelled) {
+        return new AbstractList<CourseSelection>() {
+            @Override
+            public CourseSelection get(int index) {
+                if (index % CANCEL_CHECK_ROWS == 0 && cancelled.getAsBoolean()) {
+                    throw new CancellationException();
+                }
+                return courses.get(index);
+            }
+
+            @Override
+            public int size() {
+                return courses.size();
+            }
+        };
+    }
+
+    private static void deletePartial(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete partial export " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Write the changes made since a watermark (null for everything) to a delta file, compressed
+    // when the name ends in .gz. Returns the delta written; its getWatermark() is the value to
+    // pass next time so each export carries only what changed since the previous one. Null on failure.
+    public CourseDelta exportDelta(CourseManager manager, String sinceWatermark, String filePath) {
+        long started = Metrics.start();
+        CourseDelta delta = manager.changesSince(sinceWatermark);
+        try {
+            new File(filePath).getAbsoluteFile().getParentFile().mkdirs();
+            OutputStream out = Files.newOutputStream(Paths.get(filePath));
+            if (filePath.endsWith(GZIP_EXTENSION)) {
+                out = new GZIPOutputStream(out, 1 << 16);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+                writer.write(DELTA_HEADER + "," + delta.getEpoch() + "," + delta.getFromVersion() + ","
+                    + delta.getToVersion() + "," + (delta.isFull() ? "full" : "changes") + "\n");
+                for (SelectionKey key : delta.getDeletes()) {
+                    writer.write("D," + key.getStudentId() + "," + key.getCourseId() + "," + key.getSemester() + "\n");
+                }
+                for (CourseSelection course : delta.getUpserts()) {
+                    writer.write("U," + course.toStorageString() + "\n");
+                }
+            }
+            Metrics.add(Metrics.Counter.BYTES_WRITTEN, Files.size(Paths.get(filePath)));
+            return delta;
+        } catch (IOException e) {
+            System.err.println("Error writing delta: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.DELTA_EXPORT);
+            return null;
+        } finally {
+            Metrics.record(Metrics.Operation.DELTA_EXPORT, started);
+        }
+    }
+
+    // Read a delta file written by exportDelta and apply it with CourseManager.applyDelta.
+    // Applying the same file again changes nothing. The whole file is read first; an unreadable
+    // or malformed file is rejected without applying any of it and yields an empty report.
+    public BatchReport importDelta(String filePath, CourseManager manager) {
+        if (!fileExists(filePath)) {
+            System.err.println("File not found: " + filePath);
+            Metrics.failed(Metrics.Operation.DELTA_IMPORT);
+            return new BatchReport();
+        }
+        long started = Metrics.start();
+        CourseDelta delta;
+        try {
+            delta = readDelta(Paths.get(filePath));
+            Metrics.add(Metrics.Counter.BYTES_READ, Files.size(Paths.get(filePath)));
+            Metrics.add(Metrics.Counter.ROWS_PARSED, delta.size());
+        } catch (IOException e) {
+            System.err.println("Error reading delta: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.DELTA_IMPORT);
+            Metrics.record(Metrics.Operation.DELTA_IMPORT, started);
+            return new BatchReport();
+        }
+        BatchReport report = manager.applyDelta(delta);
+        Metrics.record(Metrics.Operation.DELTA_IMPORT, started);
+        return report;
+    }
+
+    private static CourseDelta readDelta(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(textInput(path, channel), StandardCharsets.UTF_8))) {
+            String[] header = String.valueOf(reader.readLine()).split(",", -1);
+            if (header.length != 5 || !header[0].equals(DELTA_HEADER)) {
+                throw new IOException("Not a delta file: " + path);
+            }
+            long fromVersion;
+            long toVersion;
+            try {
+                fromVersion = Long.parseLong(header[2]);
+                toVersion = Long.parseLong(header[3]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad delta header: " + path);
+            }
+
+            List<CourseSelection> upserts = new ArrayList<>();
+            List<SelectionKey> deletes = new ArrayList<>();
+            int lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.startsWith("U,")) {
+                    CourseSelection course = CourseSelection.fromFileString(line.substring(2));
+                    if (course == null) {
+                        throw new IOException("Malformed delta record on line " + lineNumber);
+                    }
+                    upserts.add(course);
+                } else if (line.startsWith("D,")) {
+                    String[] key = line.split(",", -1);
+                    if (key.length != 4) {
+                        throw new IOException("Malformed delta tombstone on line " + lineNumber);
+                    }
+                    deletes.add(SelectionKey.of(key[1], key[2], key[3]));
+                } else {
+                    throw new IOException("Unknown delta line " + lineNumber);
+                }
+            }
+            return new CourseDelta(header[1], fromVersion, toVersion, header[4].equals("full"), upserts, deletes);
+        }
+    }
+
+    // Rewrite a course file in the other format: the source format is detected, the target
+    // format follows the target's extension
+    public boolean convertFile(String sourcePath, String targetPath) {
+        if (!fileExists(sourcePath)) {
+            System.err.println("File not found: " + sourcePath);
+            return false;
+        }
+        return exportToFile(importFromFile(sourcePath), targetPath);
+    }
+
+    // Snapshots pass exactCredit so that reloading one gives back the credits the journal would;
+    // user exports keep the one-decimal format. The binary format always stores the exact value.
+    private boolean writeCourses(List<CourseSelection> courses, String filePath, boolean binary, boolean exactCredit) {
+        if (courses == null) {
+            return false;
+        }
+
+        try {
+            // Create parent directories if they don't exist
+            File file = new File(filePath);
+            file.getAbsoluteFile().getParentFile().mkdirs();
+
+            if (binary) {
+                CourseBinaryFormat.write(courses, Paths.get(filePath));
+                Metrics.add(Metrics.Counter.BYTES_WRITTEN, Files.size(Paths.get(filePath)));
+                return true;
+            }
+
+            CourseExporter.Result result = CourseExporter.write(courses.iterator(), Paths.get(filePath),
+                filePath.endsWith(GZIP_EXTENSION), exactCredit, null);
+            Metrics.add(Metrics.Counter.BYTES_WRITTEN, result.getBytes());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing to file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Load the saved data into a manager, reporting progress as a fraction from 0 to 1, and
+    // return the rows added. Snapshot rows whose file still matches the manifest saveData wrote
+    // are covered by its checksum, so they go in through CourseManager.loadTrusted without
+    // another validation pass. Rows the journal wrote, and every row of a snapshot without a
+    // matching manifest (an edited or restored file), take the validating import.
+    public int loadInto(CourseManager manager, DoubleConsumer progress) {
+        long started = Metrics.start();
+        boolean trusted = isTrustedSnapshot();
+        List<CourseSelection> journaled = new ArrayList<>();
+        List<CourseSelection> snapshot = replayJournal(readSnapshot(), journaled);
+        progress.accept(LOAD_READ_SHARE);
+
+        ImportReport report = new ImportReport();
+        double total = Math.max(1, snapshot.size() + journaled.size());
+        for (int from = 0; from < snapshot.size(); from += IMPORT_BATCH_SIZE) {
+            int to = Math.min(snapshot.size(), from + IMPORT_BATCH_SIZE);
+            if (trusted) {
+                manager.loadTrusted(snapshot.subList(from, to), from + 1, report);
+            } else {
+                manager.importBatch(snapshot.subList(from, to), from + 1, report);
+            }
+            progress.accept(LOAD_READ_SHARE + (1 - LOAD_READ_SHARE) * to / total);
+        }
+        // Journal rows are numbered after the snapshot's in the report
+        for (int from = 0; from < journaled.size(); from += IMPORT_BATCH_SIZE) {
+            int to = Math.min(journaled.size(), from + IMPORT_BATCH_SIZE);
+            manager.importBatch(journaled.subList(from, to), snapshot.size() + from + 1, report);
+            progress.accept(LOAD_READ_SHARE + (1 - LOAD_READ_SHARE) * (snapshot.size() + to) / total);
+        }
+        if (report.getInvalid() > 0) {
+            System.err.println("Some saved rows were rejected:\n" + report.summary());
+        }
+        progress.accept(1.0);
+        Metrics.record(Metrics.Operation.LOAD, started);
+        return report.getAdded();
+    }
+
+    // Last snapshot with the journal replayed on top of it; rows the journal wrote come last
+    public List<CourseSelection> loadData() {
+        long started = Metrics.start();
+        try {
+            List<CourseSelection> journaled = new ArrayList<>();
+            List<CourseSelection> courses = replayJournal(readSnapshot(), journaled);
+            courses.addAll(journaled);
+            return courses;
+        } finally {
+            Metrics.record(Metrics.Operation.LOAD, started);
+        }
+    }
+
+    private List<CourseSelection> readSnapshot() {
+        return fileExists(dataFile) ? importFromFile(dataFile) : new ArrayList<>();
+    }
+
+    // Apply the journal to the snapshot's rows. Returns the snapshot rows still current, in
+    // file order, and adds the rows written by the journal to journaled, so callers can tell
+    // bytes the manifest covers from bytes it does not.
+    private List<CourseSelection> replayJournal(List<CourseSelection> courses, List<CourseSelection> journaled) {
+        // A checkpoint leaves the journal empty
+        if (!fileExists(journalFile) || new File(journalFile).length() == 0) {
+            return courses;
+        }
+
+        Map<SelectionKey, CourseSelection> state = new LinkedHashMap<>();
+        for (CourseSelection course : courses) {
+            state.putIfAbsent(course.getKey(), course);
+        }
+        try {
+            MutationJournal.replay(Paths.get(journalFile), state);
+            Metrics.add(Metrics.Counter.BYTES_READ, Files.size(Paths.get(journalFile)));
+        } catch (IOException e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.LOAD);
+        }
+        // Replay stores new records, so a snapshot row is current only while it is still the
+        // very object mapped to its key
+        List<CourseSelection> current = new ArrayList<>(courses.size());
+        for (CourseSelection course : courses) {
+            if (state.get(course.getKey()) == course) {
+                current.add(course);
+                state.remove(course.getKey());
+            }
+        }
+        journaled.addAll(state.values());
+        return current;
+    }
+
+    // Journal every later change of the manager; call once the initial load has been imported
+    public void attachJournal(CourseManager manager) {
+        MutationJournal journal = getJournal();
+        if (journal != null) {
+            manager.setMutationListener(journal);
+        }
+    }
+
+    // Checkpoint: write a full snapshot, then empty the journal it supersedes. Writes are held
+    // off only while the snapshot is written and the journal emptied, so none is lost between
+    // the two; the manifest and the backup generation read the finished file afterwards, while
+    // new writes go to the journal again.
+    public boolean saveData(CourseManager manager) {
+        if (manager == null) {
+            return false;
+        }
+
+        long started = Metrics.start();
+        boolean success;
+        synchronized (checkpointLock) {
+            success = manager.withConsistentView(courses -> {
+                if (!writeSnapshot(courses)) {
+                    return false;
+                }
+                truncateJournal();
+                return true;
+            });
+            if (success) {
+                // The rows came from the manager, so the new snapshot can be trusted on the next load
+                writeManifest();
+                createBackup();
+            }
+        }
+        if (!success) {
+            Metrics.failed(Metrics.Operation.SAVE);
+        }
+        Metrics.record(Metrics.Operation.SAVE, started);
+        return success;
+    }
+
+    // Restore the newest backup generation, falling back to a single-copy backup left by older versions
+    public boolean restoreFromBackup() {
+        try {
+            long latest = getBackupStore().latestGeneration();
+            if (latest > 0) {
+                return restoreFromBackup(latest);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read backups: " + e.getMessage());
+        }
+
+        if (!fileExists(backupFile)) {
+            return false;
+        }
+        List<CourseSelection> backupData = importFromFile(backupFile);
+        boolean success = writeSnapshot(backupData);
+        if (success) {
+            truncateJournal();
+        }
+        return success;
+    }
+
+    public boolean restoreFromBackup(long generation) {
+        try {
+            boolean success = getBackupStore().restore(generation, Paths.get(dataFile));
+            if (success) {
+                truncateJournal();
+            }
+            return success;
+        } catch (IOException e) {
+            System.err.println("Failed to restore backup: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Backup generations available to restoreFromBackup, oldest first
+    public List<Long> getBackupGenerations() {
+        try {
+            return getBackupStore().listGenerations();
+        } catch (IOException e) {
+            System.err.println("Failed to read backups: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Flush and close the journal, e.g. on application exit
+    public synchronized void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private synchronized MutationJournal getJournal() {
+        if (journal == null) {
+            try {
+                journal = new MutationJournal(Paths.get(journalFile), JOURNAL_SYNC_MILLIS);
+            } catch (IOException e) {
+                System.err.println("Failed to open journal: " + e.getMessage());
+            }
+        }
+        return journal;
+    }
+
+    private synchronized void truncateJournal() {
+        try {
+            if (journal != null) {
+                journal.truncate();
+            } else {
+                Files.deleteIfExists(Paths.get(journalFile));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to truncate journal: " + e.getMessage());
+        }
+    }
+
+    // Write to a temporary file, force it to disk and move it over the data file atomically.
+    // The manifest of the old file goes first; only saveData writes a new one.
+    private boolean writeSnapshot(List<CourseSelection> courses) {
+        Path target = Paths.get(dataFile);
+        Path temp = Paths.get(dataFile + ".tmp");
+        if (!writeCourses(courses, temp.toString(), BINARY_STORAGE, true)) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(manifestFile));
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Record the size and checksum of the data file; written to a temporary file and moved into
+    // place, so a crash leaves either no manifest or a complete one
+    private void writeManifest() {
+        Path manifest = Paths.get(manifestFile);
+        Path temp = Paths.get(manifestFile + ".tmp");
+        try {
+            Path data = Paths.get(dataFile);
+            String line = MANIFEST_HEADER + "," + Files.size(data) + "," + Long.toHexString(checksum(data)) + "\n";
+            Files.write(temp, line.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to write manifest: " + e.getMessage());
+        }
+    }
+
+    // Whether the data file is exactly the one the manifest describes; the size is compared
+    // first so a changed file is usually rejected without reading it
+    private boolean isTrustedSnapshot() {
+        if (!fileExists(manifestFile) || !fileExists(dataFile)) {
+            return false;
+        }
+        try {
+            String[] manifest = new String(Files.readAllBytes(Paths.get(manifestFile)), StandardCharsets.UTF_8)
+                .trim().split(",", -1);
+            if (manifest.length != 3 || !manifest[0].equals(MANIFEST_HEADER)) {
+                return false;
+            }
+            Path data = Paths.get(dataFile);
+            return Long.parseLong(manifest[1]) == Files.size(data)
+                && Long.parseUnsignedLong(manifest[2], 16) == checksum(data);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Ignoring manifest: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // CRC32C of a whole file, mapped a region at a time
+    private static long checksum(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHECKSUM_REGION) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(CHECKSUM_REGION, size - position)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isGzip(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(2);
+            return head.length == 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static InputStream textInput(Path path, FileChannel channel) throws IOException {
+        InputStream in = Channels.newInputStream(channel);
+        return isGzip(path) ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    // Compressed text cannot be split into chunks, so it is read line by line; like the chunked
+    // parser, blank and malformed lines are skipped
+    private static List<CourseSelection> readGzip(Path path) throws IOException {
+        List<CourseSelection> courses = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(textInput(path, channel), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                CourseSelection course = line.isBlank() ? null : CourseSelection.fromFileString(line);
+                if (course != null) {
+                    courses.add(course);
+                }
+            }
+        }
+        return courses;
+    }
+
+    public static String getDefaultDataFilePath() {
+        return DATA_DIR + "/" + DATA_FILE_NAME;
+    }
+
+    public boolean fileExists(String filePath) {
+        return filePath != null && new File(filePath).exists();
+    }
+
+    public List<String> readFileLines(String filePath) throws IOException {
+        if (!fileExists(filePath)) {
+            throw new FileNotFoundException("File not found: " + filePath);
+        }
+        return Files.readAllLines(Paths.get(filePath));
+    }
+}
\ No newline at end of file
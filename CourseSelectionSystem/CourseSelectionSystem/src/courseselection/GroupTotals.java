@@ -0,0 +1,106 @@
+package courseselection;
+
+import java.util.Arrays;
+
+// Row count, credit sum and hours sum per group key, adjusted in O(1) as rows are added and
+// removed. Credits are summed as whole micro-credits, so adding and later removing a row
+// restores the previous sum exactly instead of leaving floating-point residue. Groups are
+// dropped when their last row goes.
+public final class GroupTotals {
+    private static final double MICROS = 1_000_000.0;
+
+    private final LongIntMap slotsByGroup = new LongIntMap();
+    private long[] groups = new long[16];
+    private int[] counts = new int[16];
+    private long[] creditMicros = new long[16];
+    private long[] hours = new long[16];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount = 0;
+    private int slotLimit = 0;
+
+    public void add(long group, double credit, int rowHours) {
+        int slot = slotsByGroup.get(group);
+        if (slot == LongIntMap.NO_VALUE) {
+            slot = allocateSlot();
+            slotsByGroup.put(group, slot);
+            groups[slot] = group;
+        }
+        counts[slot]++;
+        creditMicros[slot] += Math.round(credit * MICROS);
+        hours[slot] += rowHours;
+    }
+
+    // Undo an add of the same values
+    public void remove(long group, double credit, int rowHours) {
+        int slot = slotsByGroup.get(group);
+        if (slot == LongIntMap.NO_VALUE) {
+            return;
+        }
+        creditMicros[slot] -= Math.round(credit * MICROS);
+        hours[slot] -= rowHours;
+        if (--counts[slot] == 0) {
+            slotsByGroup.remove(group);
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    public int count(long group) {
+        int slot = slotsByGroup.get(group);
+        return slot == LongIntMap.NO_VALUE ? 0 : counts[slot];
+    }
+
+    public double creditSum(long group) {
+        int slot = slotsByGroup.get(group);
+        return slot == LongIntMap.NO_VALUE ? 0 : creditMicros[slot] / MICROS;
+    }
+
+    public long hoursSum(long group) {
+        int slot = slotsByGroup.get(group);
+        return slot == LongIntMap.NO_VALUE ? 0 : hours[slot];
+    }
+
+    public int groupCount() {
+        return slotsByGroup.size();
+    }
+
+    // Keys of all non-empty groups, in no particular order
+    public long[] groups() {
+        long[] live = new long[slotsByGroup.size()];
+        int n = 0;
+        for (int slot = 0; slot < slotLimit && n < live.length; slot++) {
+            if (counts[slot] > 0) {
+                live[n++] = groups[slot];
+            }
+        }
+        return n == live.length ? live : Arrays.copyOf(live, n);
+    }
+
+    public void clear() {
+        slotsByGroup.clear();
+        freeSlotCount = 0;
+        slotLimit = 0;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            int slot = freeSlots[--freeSlotCount];
+            creditMicros[slot] = 0;
+            hours[slot] = 0;
+            return slot;
+        }
+        if (slotLimit == groups.length) {
+            int capacity = groups.length * 2;
+            groups = Arrays.copyOf(groups, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            creditMicros = Arrays.copyOf(creditMicros, capacity);
+            hours = Arrays.copyOf(hours, capacity);
+        }
+        counts[slotLimit] = 0;
+        creditMicros[slotLimit] = 0;
+        hours[slotLimit] = 0;
+        return slotLimit++;
+    }
+}
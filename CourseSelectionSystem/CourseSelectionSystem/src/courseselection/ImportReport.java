@@ -0,0 +1,98 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Aggregated outcome of importing a batch of course selections
+public class ImportReport {
+    // Only the first few rejections are kept for display; all of them are counted
+    private static final int MAX_REJECTION_DETAILS = 20;
+
+    private int added = 0;
+    private int duplicates = 0;
+    private int invalid = 0;
+    private boolean cancelled = false;
+    // Why the import stopped early, or null
+    private String failure = null;
+    private final List<ValidationResult> rejections = new ArrayList<>();
+
+    public void recordAdded() {
+        added++;
+    }
+
+    public void recordDuplicate() {
+        duplicates++;
+    }
+
+    public void recordInvalid(ValidationResult result) {
+        invalid++;
+        if (rejections.size() < MAX_REJECTION_DETAILS) {
+            rejections.add(result);
+        }
+    }
+
+    public void markCancelled() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // An error stopped the import; the rows counted so far were still imported
+    public void markFailed(String reason) {
+        failure = reason;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public int getTotal() {
+        return added + duplicates + invalid;
+    }
+
+    public List<ValidationResult> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    // One human-readable summary for the whole batch
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        if (failure != null) {
+            text.append("Import stopped after ").append(getTotal()).append(" rows: ").append(failure).append("\n");
+        } else if (cancelled) {
+            text.append("Import was cancelled after ").append(getTotal()).append(" rows.\n");
+        }
+        text.append("Successfully imported ").append(added).append(" courses.\n");
+        text.append(duplicates).append(" duplicates were skipped.\n");
+        text.append(invalid).append(" invalid rows were rejected.");
+        if (!rejections.isEmpty()) {
+            text.append("\n");
+            for (ValidationResult rejection : rejections) {
+                text.append("\n").append(rejection);
+            }
+            if (invalid > rejections.size()) {
+                text.append("\n... and ").append(invalid - rejections.size()).append(" more");
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Search-as-you-type state for one search box. When a query contains the previous one and the
+// manager has not changed since, the previous complete result set is filtered instead of
+// asking the index again; a longer needle can only match a subset of what a shorter one did.
+// Result sets are capped so a one-letter query does not materialize the whole table.
+public class IncrementalSearch {
+    private final CourseManager manager;
+    private final int maxResults;
+
+    private String lastNeedle;
+    private long lastVersion = -1;
+    private List<CourseSelection> lastResults;
+    private boolean lastComplete;
+
+    public IncrementalSearch(CourseManager manager, int maxResults) {
+        this.manager = manager;
+        this.maxResults = maxResults;
+    }
+
+    public synchronized Result search(String keyword) {
+        String needle = NgramIndex.normalize(keyword);
+        if (needle.isEmpty()) {
+            lastNeedle = null;
+            return new Result(new ArrayList<>(), false);
+        }
+
+        long version = manager.getVersion();
+        List<CourseSelection> results;
+        boolean complete;
+        if (lastNeedle != null && lastComplete && version == lastVersion && needle.contains(lastNeedle)) {
+            results = new ArrayList<>();
+            for (CourseSelection course : lastResults) {
+                if (matches(course, needle)) {
+                    results.add(course);
+                }
+            }
+            complete = true;
+        } else {
+            // One extra row tells whether the cap cut the result short
+            results = manager.searchByStudent(keyword, maxResults + 1);
+            complete = results.size() <= maxResults;
+            if (!complete) {
+                results = results.subList(0, maxResults);
+            }
+        }
+
+        lastNeedle = needle;
+        lastVersion = version;
+        lastResults = results;
+        lastComplete = complete;
+        return new Result(new ArrayList<>(results), !complete);
+    }
+
+    // The rule the trigram index applies: the normalized name or ID contains the needle
+    private static boolean matches(CourseSelection course, String needle) {
+        return NgramIndex.normalize(course.getStudentName()).contains(needle)
+            || NgramIndex.normalize(course.getStudentId()).contains(needle);
+    }
+
+    // Matching selections, and whether more matched than were returned
+    public static final class Result {
+        private final List<CourseSelection> selections;
+        private final boolean truncated;
+
+        Result(List<CourseSelection> selections, boolean truncated) {
+            this.selections = selections;
+            this.truncated = truncated;
+        }
+
+        public List<CourseSelection> getSelections() {
+            return selections;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
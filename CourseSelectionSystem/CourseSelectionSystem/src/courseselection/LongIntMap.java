@@ -0,0 +1,126 @@
+package courseselection;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+
+// Open-addressing hash map from long keys to int values without boxing.
+// Linear probing with backward-shift deletion, so there are no tombstones to clean up.
+// The key -1 is reserved as the empty-slot marker; get and remove return NO_VALUE on a miss.
+// get may run against a concurrent writer (CourseManager's optimistic reads): it reads the
+// table once and gives up after one pass over it, so a torn table fails instead of looping.
+public final class LongIntMap {
+    public static final int NO_VALUE = -1;
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int get(long key) {
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = slot(key) & mask;
+        for (int probes = 0; probes < keys.length; probes++, slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) return NO_VALUE;
+        }
+        throw new ConcurrentModificationException();
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    // Returns the previous value, or NO_VALUE when the key was absent
+    public int put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key -1 is reserved");
+        }
+        int slot = slot(key);
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // Keep the load factor at or below one half
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    // Returns the removed value, or NO_VALUE when the key was absent
+    public int remove(long key) {
+        int slot = slot(key);
+        for (; keys[slot] != key; slot = (slot + 1) & mask) {
+            if (keys[slot] == EMPTY) return NO_VALUE;
+        }
+        int removed = values[slot];
+        size--;
+
+        // Shift later entries of the probe run back into the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package courseselection;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Process-wide instrumentation: a latency histogram and a failure count per operation, plus
+// counters of bytes and rows moved through files. Off unless the JVM is started with
+// -Dcourses.metrics=true; the switch is a constant, so while it is off every hook below is
+// an empty method the JIT removes and costs nothing. When on, everything is published as
+// MXBeans under "courseselection:*" (e.g. in jconsole) and a report is written on shutdown,
+// to stderr or to the file named by -Dcourses.metrics.dump.
+//
+// Hooks look like:
+//     long started = Metrics.start();
+//     ...
+//     Metrics.record(Metrics.Operation.ADD, started);
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("courses.metrics");
+    private static final String DUMP_FILE = System.getProperty("courses.metrics.dump");
+    private static final String DOMAIN = "courseselection";
+
+    public enum Operation {
+        // CourseManager
+        ADD, DELETE, MODIFY, IMPORT_BATCH, BULK_WRITE, APPLY_DELTA,
+        QUERY, SEARCH, PAGE, TOTALS, CHANGES_SINCE, SNAPSHOT,
+        // FileHandler and the journal
+        FILE_IMPORT, FILE_EXPORT, LOAD, SAVE, DELTA_EXPORT, DELTA_IMPORT, JOURNAL_APPEND
+    }
+
+    public enum Counter {
+        BYTES_READ, BYTES_WRITTEN, ROWS_PARSED, ROWS_REJECTED, ROWS_DUPLICATE,
+        // TaskScheduler work that failed with no failure callback to report it
+        TASKS_FAILED
+    }
+
+    // Attributes are in microseconds
+    public interface OperationMXBean {
+        long getCount();
+        long getFailures();
+        double getMeanMicros();
+        double getP50Micros();
+        double getP90Micros();
+        double getP99Micros();
+        double getP999Micros();
+        double getMaxMicros();
+        void reset();
+    }
+
+    public interface CourseMetricsMXBean {
+        Map<String, Long> getCounters();
+        // Table and index sizes of the most recently created CourseManager
+        Map<String, Long> getSizes();
+        String getReport();
+        void reset();
+    }
+
+    private static final LatencyHistogram[] LATENCIES = new LatencyHistogram[Operation.values().length];
+    private static final LongAdder[] FAILURES = new LongAdder[Operation.values().length];
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static volatile WeakReference<CourseManager> manager = new WeakReference<>(null);
+
+    static {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i] = new LatencyHistogram();
+            FAILURES[i] = new LongAdder();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+        if (ENABLED) {
+            register();
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::dump, "metrics-dump"));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // Start time for record(); 0 when disabled, so no clock is read
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void record(Operation operation, long started) {
+        if (ENABLED) {
+            LATENCIES[operation.ordinal()].record(System.nanoTime() - started);
+        }
+    }
+
+    // An operation that gave up, e.g. on an I/O error; its latency is recorded separately
+    public static void failed(Operation operation) {
+        if (ENABLED) {
+            FAILURES[operation.ordinal()].increment();
+        }
+    }
+
+    public static void add(Counter counter, long amount) {
+        if (ENABLED) {
+            COUNTERS[counter.ordinal()].add(amount);
+        }
+    }
+
+    // Report the sizes of this manager; only a weak reference is kept
+    static void watch(CourseManager courseManager) {
+        if (ENABLED) {
+            manager = new WeakReference<>(courseManager);
+        }
+    }
+
+    public static LatencyHistogram latency(Operation operation) {
+        return LATENCIES[operation.ordinal()];
+    }
+
+    public static long failures(Operation operation) {
+        return FAILURES[operation.ordinal()].sum();
+    }
+
+    public static long count(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            values.put(name(counter), count(counter));
+        }
+        return values;
+    }
+
+    public static Map<String, Long> sizes() {
+        CourseManager current = manager.get();
+        return current == null ? new LinkedHashMap<>() : current.metricSizes();
+    }
+
+    public static void reset() {
+        for (int i = 0; i < LATENCIES.length; i++) {
+            LATENCIES[i].reset();
+            FAILURES[i].reset();
+        }
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+    }
+
+    // One line per operation that ran, then counters and sizes
+    public static String report() {
+        StringBuilder report = new StringBuilder("operation            count  failures    mean     p50     p90     p99   p99.9     max (us)\n");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram latency = latency(operation);
+            if (latency.getCount() == 0 && failures(operation) == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%-17s %8d %9d %7.1f %7.1f %7.1f %7.1f %7.1f %7.1f%n",
+                name(operation), latency.getCount(), failures(operation), latency.getMean() / 1000,
+                micros(latency.percentile(50)), micros(latency.percentile(90)),
+                micros(latency.percentile(99)), micros(latency.percentile(99.9)), micros(latency.getMax())));
+        }
+        counters().forEach((name, value) -> report.append(name).append(' ').append(value).append('\n'));
+        sizes().forEach((name, value) -> report.append(name).append(' ').append(value).append('\n'));
+        return report.toString();
+    }
+
+    private static void dump() {
+        String report = report();
+        if (DUMP_FILE == null) {
+            System.err.print(report);
+            return;
+        }
+        try {
+            Files.write(Paths.get(DUMP_FILE), report.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics: " + e.getMessage());
+        }
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Operation operation : Operation.values()) {
+                server.registerMBean(new OperationBean(operation),
+                    new ObjectName(DOMAIN + ":type=Operation,name=" + name(operation)));
+            }
+            server.registerMBean(new CourseMetricsBean(), new ObjectName(DOMAIN + ":type=Metrics"));
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics: " + e.getMessage());
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    // FILE_IMPORT -> fileImport
+    private static String name(Enum<?> value) {
+        StringBuilder name = new StringBuilder();
+        for (String part : value.name().toLowerCase(Locale.ROOT).split("_")) {
+            name.append(name.length() == 0 ? part : Character.toUpperCase(part.charAt(0)) + part.substring(1));
+        }
+        return name.toString();
+    }
+
+    private static final class OperationBean implements OperationMXBean {
+        private final Operation operation;
+
+        OperationBean(Operation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public long getCount() {
+            return latency(operation).getCount();
+        }
+
+        @Override
+        public long getFailures() {
+            return failures(operation);
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return latency(operation).getMean() / 1000;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return micros(latency(operation).percentile(50));
+        }
+
+        @Override
+        public double getP90Micros() {
+            return micros(latency(operation).percentile(90));
+        }
+
+        @Override
+        public double getP99Micros() {
+            return micros(latency(operation).percentile(99));
+        }
+
+        @Override
+        public double getP999Micros() {
+            return micros(latency(operation).percentile(99.9));
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return micros(latency(operation).getMax());
+        }
+
+        @Override
+        public void reset() {
+            latency(operation).reset();
+            FAILURES[operation.ordinal()].reset();
+        }
+    }
+
+    private static final class CourseMetricsBean implements CourseMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getSizes() {
+            return sizes();
+        }
+
+        @Override
+        public String getReport() {
+            return report();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package courseselection;
+
+// One committed change to the course selection table
+public final class Mutation {
+    public enum Type { ADD, DELETE, MODIFY }
+
+    private final Type type;
+    private final SelectionKey key;
+    private final CourseSelection record;
+
+    private Mutation(Type type, SelectionKey key, CourseSelection record) {
+        this.type = type;
+        this.key = key;
+        this.record = record;
+    }
+
+    public static Mutation add(CourseSelection record) {
+        return new Mutation(Type.ADD, record.getKey(), record);
+    }
+
+    public static Mutation delete(SelectionKey key) {
+        return new Mutation(Type.DELETE, key, null);
+    }
+
+    public static Mutation modify(SelectionKey oldKey, CourseSelection record) {
+        return new Mutation(Type.MODIFY, oldKey, record);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // Key of the affected record before the change (for ADD, the new record's key)
+    public SelectionKey getKey() {
+        return key;
+    }
+
+    // Record after the change; null for DELETE
+    public CourseSelection getRecord() {
+        return record;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + key + (record != null ? " -> " + record.getKey() : "");
+    }
+}
@@ -0,0 +1,321 @@
+package courseselection;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log of mutations made since the last snapshot.
+// Lines are "A,<record>", "D,<studentId>,<courseId>,<semester>" and
+// "M,<studentId>,<courseId>,<semester>,<record>", where <record> is the snapshot row format,
+// each followed by "|<crc32 hex>" so a torn final write is detected on replay.
+// fsync is batched (group commit). onMutations only appends to a buffer. When
+// syncIntervalMillis is 0, each writer then calls awaitDurable outside the manager's lock, and
+// one force covers every batch appended before it, so writers waiting together share an fsync.
+// Otherwise a background flusher forces the log at most once per interval.
+// After a failed write or sync the journal refuses every further batch, since records after
+// a gap could not be replayed.
+public class MutationJournal implements MutationListener, AutoCloseable {
+    private final Path path;
+    private final long syncIntervalMillis;
+    private FileChannel channel;
+    private Writer writer;
+    private ScheduledExecutorService flusher;
+    private boolean dirty = false;
+    private long appendedRecords = 0;
+    private IOException failure;
+    // Batches appended and batches known to be on disk, counted from open; forces are
+    // serialized by forceLock and run without holding the journal's monitor
+    private long appended = 0;
+    private volatile long durable = 0;
+    private final Object forceLock = new Object();
+
+    public MutationJournal(Path path, long syncIntervalMillis) throws IOException {
+        this.path = path;
+        this.syncIntervalMillis = syncIntervalMillis;
+        open();
+        if (syncIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly,
+                syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        repairTail();
+        writer = new BufferedWriter(
+            new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    @Override
+    public synchronized void onMutations(List<Mutation> mutations) throws IOException {
+        long started = Metrics.start();
+        try {
+            checkUsable();
+            for (Mutation mutation : mutations) {
+                String payload = encode(mutation);
+                writer.write(payload);
+                writer.write('|');
+                writer.write(Long.toHexString(checksum(payload)));
+                writer.write('\n');
+            }
+            appendedRecords += mutations.size();
+            appended++;
+            dirty = true;
+        } catch (IOException e) {
+            System.err.println("Failed to append to journal: " + e.getMessage());
+            Metrics.failed(Metrics.Operation.JOURNAL_APPEND);
+            throw fail(e);
+        } finally {
+            Metrics.record(Metrics.Operation.JOURNAL_APPEND, started);
+        }
+    }
+
+    // Wait until every batch appended so far is on disk. A caller that finds a force already
+    // running waits for it and usually needs none of its own. With a sync interval the flusher
+    // forces the log instead and this returns at once.
+    @Override
+    public void awaitDurable() throws IOException {
+        long target;
+        synchronized (this) {
+            checkUsable();
+            if (syncIntervalMillis > 0) return;
+            target = appended;
+        }
+        synchronized (forceLock) {
+            if (durable >= target) return;
+            long upTo;
+            synchronized (this) {
+                checkUsable();
+                upTo = appended;
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    throw fail(e);
+                }
+                dirty = false;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Failed to sync journal: " + e.getMessage());
+                Metrics.failed(Metrics.Operation.JOURNAL_APPEND);
+                synchronized (this) {
+                    throw fail(e);
+                }
+            }
+            durable = upTo;
+        }
+    }
+
+    // Flush buffered records and force them to disk
+    public synchronized void sync() throws IOException {
+        checkUsable();
+        if (!dirty) return;
+        try {
+            writer.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw fail(e);
+        }
+        dirty = false;
+        durable = appended;
+    }
+
+    // Caller holds the monitor; the first failure is kept and reported to every later call
+    private IOException fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        return e;
+    }
+
+    // True once a write or sync has failed; no more records are accepted
+    public synchronized boolean isFailed() {
+        return failure != null;
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal unusable after an earlier error: " + failure.getMessage(), failure);
+        }
+    }
+
+    // Drop every record; called once a snapshot containing them has been written
+    public synchronized void truncate() throws IOException {
+        sync();
+        channel.truncate(0);
+        channel.force(true);
+        appendedRecords = 0;
+    }
+
+    public synchronized long getAppendedRecords() {
+        return appendedRecords;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        try {
+            sync();
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close journal: " + e.getMessage());
+        }
+    }
+
+    private void syncQuietly() {
+        if (isFailed()) return;
+        try {
+            sync();
+        } catch (IOException e) {
+            System.err.println("Failed to sync journal: " + e.getMessage());
+        }
+    }
+
+    // Apply a journal on top of snapshot state keyed by record key. Replay is idempotent,
+    // so a log that survived a crash after its snapshot was already written is harmless.
+    // A torn or unreadable line ends the replay. Returns the number of records applied.
+    public static int replay(Path path, Map<SelectionKey, CourseSelection> state) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && apply(line, state)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // Cut the log back to its last intact line and make sure it ends in a newline, so records
+    // appended after a crash are not glued onto a torn or unterminated one and hidden from the
+    // next replay. Offsets are counted in bytes as read, not from decoded lines.
+    private void repairTail() throws IOException {
+        long size = channel.size();
+        if (size == 0) return;
+
+        long valid = 0;
+        boolean terminated = true;
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            byte[] buffer = new byte[1 << 16];
+            long offset = 0;
+            boolean torn = false;
+            int n;
+            while (!torn && (n = in.read(buffer)) > 0) {
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] != '\n') continue;
+                    line.write(buffer, start, i - start);
+                    if (!apply(line.toString(StandardCharsets.UTF_8), null)) {
+                        torn = true;
+                        break;
+                    }
+                    valid = offset + i + 1;
+                    line.reset();
+                    start = i + 1;
+                }
+                if (!torn) {
+                    line.write(buffer, start, n - start);
+                    offset += n;
+                }
+            }
+            // An intact last line that only lacks its newline is kept and terminated
+            if (!torn && line.size() > 0 && apply(line.toString(StandardCharsets.UTF_8), null)) {
+                valid = offset;
+                terminated = false;
+            }
+        }
+        if (valid < size) {
+            channel.truncate(valid);
+        }
+        if (!terminated) {
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+        if (valid < size || !terminated) {
+            channel.force(true);
+        }
+    }
+
+    // Check one line and, when state is not null, apply it; false for a torn or unknown line
+    private static boolean apply(String line, Map<SelectionKey, CourseSelection> state) {
+        int bar = line.lastIndexOf('|');
+        if (bar < 2 || line.charAt(1) != ',') return false;
+        String payload = line.substring(0, bar);
+        if (!Long.toHexString(checksum(payload)).equals(line.substring(bar + 1))) return false;
+        String body = payload.substring(2);
+        switch (line.charAt(0)) {
+            case 'A': {
+                CourseSelection record = CourseSelection.fromFileString(body);
+                if (record == null) return false;
+                if (state != null) state.put(record.getKey(), record);
+                return true;
+            }
+            case 'D': {
+                String[] key = body.split(",", -1);
+                if (key.length != 3) return false;
+                if (state != null) state.remove(SelectionKey.of(key[0], key[1], key[2]));
+                return true;
+            }
+            case 'M': {
+                String[] parts = body.split(",", 4);
+                if (parts.length != 4) return false;
+                CourseSelection record = CourseSelection.fromFileString(parts[3]);
+                if (record == null) return false;
+                if (state != null) {
+                    state.remove(SelectionKey.of(parts[0], parts[1], parts[2]));
+                    state.put(record.getKey(), record);
+                }
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private static long checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String encode(Mutation mutation) {
+        SelectionKey key = mutation.getKey();
+        switch (mutation.getType()) {
+            case ADD:
+                return "A," + mutation.getRecord().toStorageString();
+            case DELETE:
+                return "D," + key.getStudentId() + "," + key.getCourseId() + "," + key.getSemester();
+            default:
+                return "M," + key.getStudentId() + "," + key.getCourseId() + "," + key.getSemester()
+                    + "," + mutation.getRecord().toStorageString();
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package courseselection;
+
+import java.io.IOException;
+import java.util.List;
+
+// Receives changes from CourseManager before they are published; a bulk call delivers its
+// whole batch at once. Throwing refuses the change, and CourseManager rolls it back.
+// onMutations runs under the write lock and should only buffer; awaitDurable runs after the
+// lock is released and may block until everything delivered so far is on disk.
+public interface MutationListener {
+    void onMutations(List<Mutation> mutations) throws IOException;
+
+    default void awaitDurable() throws IOException {
+    }
+}
@@ -0,0 +1,200 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Trigram inverted index answering case-insensitive "contains" queries over a few text fields per item.
+// Postings are found through a LongIntMap, whose lookups stay bounded when a search races a
+// writer; every loop of search() is bounded by a size it read.
+public class NgramIndex<T> {
+    private static final int GRAM = 3;
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    // Documents get increasing ids, so every posting list is already in insertion order
+    private final List<T> items = new ArrayList<>();
+    private final List<String[]> texts = new ArrayList<>();
+    private final Map<T, Integer> docIds = new HashMap<>();
+    // Trigram key -> index of its posting list
+    private final LongIntMap postingSlots = new LongIntMap();
+    private final List<IntList> postings = new ArrayList<>();
+    private int deadCount = 0;
+
+    // Index an item under the given texts (null texts are ignored)
+    public void add(T item, String... fields) {
+        remove(item);
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+        int docId = items.size();
+        items.add(item);
+        texts.add(normalized);
+        docIds.put(item, docId);
+        addPostings(docId, normalized);
+    }
+
+    // Drop an item; its stale postings are skipped by searches and purged on compaction
+    public boolean remove(T item) {
+        Integer docId = docIds.remove(item);
+        if (docId == null) {
+            return false;
+        }
+        items.set(docId, null);
+        texts.set(docId, null);
+        deadCount++;
+        if (deadCount > COMPACT_THRESHOLD && deadCount > docIds.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    // Items whose normalized text contains the normalized query, in insertion order
+    public List<T> search(String query) {
+        List<T> results = new ArrayList<>();
+        if (query == null) return results;
+
+        String needle = normalize(query);
+        if (needle.length() < GRAM) {
+            // Too short for a trigram lookup; short keywords match most rows anyway
+            int count = items.size();
+            for (int docId = 0; docId < count; docId++) {
+                if (items.get(docId) != null && matches(texts.get(docId), needle)) {
+                    results.add(items.get(docId));
+                }
+            }
+            return results;
+        }
+
+        // Scan the rarest trigram's posting list and verify each candidate
+        IntList rarest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            IntList posting = posting(gramKey(needle, i));
+            if (posting == null) {
+                return results;
+            }
+            if (rarest == null || posting.size < rarest.size) {
+                rarest = posting;
+            }
+        }
+        int count = rarest.size;
+        int[] docs = rarest.values;
+        for (int i = 0; i < count; i++) {
+            int docId = docs[i];
+            if (items.get(docId) != null && matches(texts.get(docId), needle)) {
+                results.add(items.get(docId));
+            }
+        }
+        return results;
+    }
+
+    // Upper bound on the number of items search(query) returns, from posting list sizes alone
+    public int estimate(String query) {
+        String needle = normalize(query);
+        if (needle.length() < GRAM) {
+            return docIds.size();
+        }
+        int best = docIds.size();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            IntList posting = posting(gramKey(needle, i));
+            if (posting == null) {
+                return 0;
+            }
+            best = Math.min(best, posting.size);
+        }
+        return best;
+    }
+
+    public int size() {
+        return docIds.size();
+    }
+
+    public void clear() {
+        items.clear();
+        texts.clear();
+        docIds.clear();
+        postingSlots.clear();
+        postings.clear();
+        deadCount = 0;
+    }
+
+    // Same normalization the old linear search applied: clean whitespace, then lowercase
+    public static String normalize(String text) {
+        String clean = Normalizer.clean(text);
+        return clean != null ? clean.toLowerCase() : "";
+    }
+
+    private void addPostings(int docId, String[] fields) {
+        for (String field : fields) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                long gram = gramKey(field, i);
+                IntList posting = posting(gram);
+                if (posting == null) {
+                    posting = new IntList();
+                    postingSlots.put(gram, postings.size());
+                    postings.add(posting);
+                }
+                // Repeated trigrams within one document would end up adjacent at the tail
+                if (posting.size == 0 || posting.values[posting.size - 1] != docId) {
+                    posting.add(docId);
+                }
+            }
+        }
+    }
+
+    private IntList posting(long gram) {
+        int slot = postingSlots.get(gram);
+        return slot == LongIntMap.NO_VALUE ? null : postings.get(slot);
+    }
+
+    // Renumber the live documents and rebuild postings without the dead ones
+    private void compact() {
+        List<T> liveItems = new ArrayList<>(docIds.size());
+        List<String[]> liveTexts = new ArrayList<>(docIds.size());
+        for (int docId = 0; docId < items.size(); docId++) {
+            if (items.get(docId) != null) {
+                liveItems.add(items.get(docId));
+                liveTexts.add(texts.get(docId));
+            }
+        }
+        clear();
+        for (int docId = 0; docId < liveItems.size(); docId++) {
+            items.add(liveItems.get(docId));
+            texts.add(liveTexts.get(docId));
+            docIds.put(liveItems.get(docId), docId);
+            addPostings(docId, liveTexts.get(docId));
+        }
+    }
+
+    private static boolean matches(String[] fields, String needle) {
+        for (String field : fields) {
+            if (field.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The three chars packed into 48 bits, so never LongIntMap's reserved -1; the map mixes
+    // the bits itself
+    private static long gramKey(String text, int offset) {
+        return ((long) text.charAt(offset) << 32)
+             | ((long) text.charAt(offset + 1) << 16)
+             | text.charAt(offset + 2);
+    }
+
+    // Growable int array used for posting lists
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package courseselection;
+
+import java.util.regex.Pattern;
+
+// Headless string normalization; returns the argument itself when it is already in normal form
+public final class Normalizer {
+    private static final Pattern WHITESPACE_RUN = Pattern.compile("\\s+");
+
+    private Normalizer() {
+    }
+
+    // Trim and collapse whitespace runs to a single space
+    public static String clean(String str) {
+        if (str == null) return null;
+        if (isClean(str)) return str;
+        return WHITESPACE_RUN.matcher(str.trim()).replaceAll(" ");
+    }
+
+    // Capitalize the first letter of each word and lowercase the rest, joining words with one space
+    public static String capitalizeWords(String str) {
+        if (str == null || str.isEmpty()) return str;
+        if (isCapitalized(str)) return str;
+
+        StringBuilder result = new StringBuilder(str.length());
+        for (String word : WHITESPACE_RUN.split(str)) {
+            if (!word.isEmpty()) {
+                result.append(Character.toUpperCase(word.charAt(0)))
+                      .append(word.substring(1).toLowerCase())
+                      .append(' ');
+            }
+        }
+        return result.toString().trim();
+    }
+
+    // Already trimmed with only single spaces between words (and no other whitespace)
+    private static boolean isClean(String str) {
+        int n = str.length();
+        if (n == 0) return true;
+        if (str.charAt(0) <= ' ' || str.charAt(n - 1) <= ' ') return false;
+        for (int i = 1; i < n - 1; i++) {
+            char c = str.charAt(i);
+            if (c == ' ') {
+                if (isWhitespace(str.charAt(i + 1))) return false;
+            } else if (isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ASCII-only check that capitalizeWords would return the input unchanged
+    private static boolean isCapitalized(String str) {
+        if (!isClean(str)) return false;
+        boolean wordStart = true;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) return false;
+            if (c == ' ') {
+                wordStart = true;
+            } else {
+                if (wordStart ? (c >= 'a' && c <= 'z') : (c >= 'A' && c <= 'Z')) return false;
+                wordStart = false;
+            }
+        }
+        return true;
+    }
+
+    // The characters matched by the regex class \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,373 @@
+package courseselection;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+// Plans and runs CourseQuery objects against CourseManager's store and indexes. Callers hold
+// CourseManager's read discipline (optimistic or locked), so walks over linked buckets are
+// bounded and fail with ConcurrentModificationException instead of looping on torn links.
+//
+// Access paths, cheapest estimate wins:
+//   student index   STUDENT_ID = id          rows of that student
+//   semester index  SEMESTER = term          rows of that semester (term letter case folded)
+//   trigram index   STUDENT_NAME/STUDENT_ID contains text (3+ chars)
+//   column order    a range or equality on a column whose RowOrder is built and current
+//   scan            every row in insertion order
+// Every condition is re-checked on each candidate, so an access path only has to return a
+// superset. An ordered query either walks the order of its column and stops after
+// offset + limit matches, or sorts the candidates, whichever visits fewer rows.
+final class QueryPlanner {
+    private enum Access { STUDENT, SEMESTER, TRIGRAM, ORDER_RANGE, SCAN }
+
+    private final CourseStore store;
+    private final RowBuckets rowsByStudent;
+    private final RowBuckets rowsBySemester;
+    private final NgramIndex<Long> studentSearchIndex;
+    private final LongIntMap studentPairRows;
+    private final Map<CourseColumn, RowOrder> orders;
+
+    QueryPlanner(CourseStore store, RowBuckets rowsByStudent, RowBuckets rowsBySemester,
+                 NgramIndex<Long> studentSearchIndex, LongIntMap studentPairRows,
+                 Map<CourseColumn, RowOrder> orders) {
+        this.store = store;
+        this.rowsByStudent = rowsByStudent;
+        this.rowsBySemester = rowsBySemester;
+        this.studentSearchIndex = studentSearchIndex;
+        this.studentPairRows = studentPairRows;
+        this.orders = orders;
+    }
+
+    // A chosen access path plus how ordering is handled
+    static final class Plan {
+        private final CourseQuery query;
+        private final IntPredicate filter;
+        private Access access = Access.SCAN;
+        private String accessDetail = "";
+        private long estimate;
+        // Bucket of the student or semester index, or the trigram needle
+        private long bucket;
+        private String needle;
+        // Index range [from, to) of the column order used by ORDER_RANGE or by an order walk
+        private CourseColumn orderColumn;
+        private int from;
+        private int to;
+        // Stream the rows in the query's order instead of sorting the matches
+        private boolean walkOrder;
+
+        private Plan(CourseQuery query, IntPredicate filter) {
+            this.query = query;
+            this.filter = filter;
+        }
+
+        String describe() {
+            StringBuilder text = new StringBuilder();
+            text.append("access: ");
+            switch (access) {
+                case STUDENT: text.append("student index ").append(accessDetail); break;
+                case SEMESTER: text.append("semester index ").append(accessDetail); break;
+                case TRIGRAM: text.append("trigram index ").append(accessDetail); break;
+                case ORDER_RANGE: text.append(orderColumn).append(" order, positions ").append(from)
+                    .append("-").append(to).append(" (").append(accessDetail).append(")"); break;
+                default: text.append(walkOrder ? "walk of " + orderColumn + " order" : "full scan");
+            }
+            text.append(", ~").append(estimate).append(" rows\n");
+
+            List<CourseQuery.Condition> conditions = query.getConditions();
+            text.append("filter: ");
+            if (conditions.isEmpty()) {
+                text.append("none");
+            }
+            for (int i = 0; i < conditions.size(); i++) {
+                text.append(i == 0 ? "" : " AND ").append(conditions.get(i));
+            }
+            text.append('\n');
+
+            CourseColumn orderBy = query.getOrderBy();
+            String direction = query.isDescending() ? " descending" : " ascending";
+            text.append("order: ");
+            if (orderBy == null) {
+                text.append("none");
+            } else if (walkOrder) {
+                text.append("walk ").append(orderBy).append(" order").append(direction)
+                    .append(", stop after offset + limit matches");
+            } else {
+                text.append("sort matches by ").append(orderBy).append(direction);
+            }
+            text.append('\n');
+            text.append("offset: ").append(query.getOffset()).append(", limit: ")
+                .append(query.getLimit() == Integer.MAX_VALUE ? "none" : String.valueOf(query.getLimit())).append('\n');
+            text.append("select: ").append(query.getProjection());
+            return text.toString();
+        }
+    }
+
+    Plan plan(CourseQuery query) {
+        Plan plan = new Plan(query, compile(query.getConditions()));
+        plan.estimate = store.size();
+
+        for (CourseQuery.Condition condition : query.getConditions()) {
+            considerIndex(plan, condition);
+        }
+
+        CourseColumn orderBy = query.getOrderBy();
+        RowOrder order = orderBy == null ? null : readyOrder(orderBy);
+        if (order != null) {
+            if (plan.access == Access.ORDER_RANGE && plan.orderColumn == orderBy) {
+                plan.walkOrder = true;
+            } else {
+                // Matches are assumed to be spread evenly through the order
+                long needed = (long) query.getOffset() + query.getLimit();
+                long walk = needed >= plan.estimate ? store.size()
+                    : Math.min(store.size(), needed * store.size() / Math.max(1, plan.estimate));
+                if (walk <= plan.estimate) {
+                    plan.walkOrder = true;
+                    plan.access = Access.SCAN;
+                    plan.orderColumn = orderBy;
+                    plan.from = 0;
+                    plan.to = order.size();
+                    plan.estimate = walk;
+                }
+            }
+        }
+        return plan;
+    }
+
+    // Matching rows in query order, after offset and limit
+    int[] execute(Plan plan) {
+        CourseQuery query = plan.query;
+        boolean sort = query.getOrderBy() != null && !plan.walkOrder;
+        long wanted = sort ? Long.MAX_VALUE : (long) query.getOffset() + query.getLimit();
+        IntArray matches = new IntArray();
+        visit(plan, plan.walkOrder, row -> {
+            if (plan.filter.test(row)) {
+                matches.add(row);
+            }
+            return matches.size < wanted;
+        });
+
+        int[] rows = Arrays.copyOf(matches.values, matches.size);
+        if (sort) {
+            CourseColumn column = query.getOrderBy();
+            RowOrder.sort(rows, query.isDescending()
+                ? (a, b) -> store.compare(column, b, a)
+                : (a, b) -> store.compare(column, a, b));
+        }
+        int from = Math.min(rows.length, query.getOffset());
+        int to = (int) Math.min(rows.length, (long) from + query.getLimit());
+        return Arrays.copyOfRange(rows, from, to);
+    }
+
+    // Number of rows matching the conditions; order, offset and limit do not apply
+    int count(Plan plan) {
+        int[] count = {0};
+        visit(plan, false, row -> {
+            if (plan.filter.test(row)) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    private void considerIndex(Plan plan, CourseQuery.Condition condition) {
+        CourseColumn column = condition.getColumn();
+        CourseQuery.Operator operator = condition.getOperator();
+        Object value = condition.getValue();
+
+        if (operator == CourseQuery.Operator.EQUALS && column == CourseColumn.STUDENT_ID) {
+            int id = CourseStore.packStudentId(Normalizer.clean((String) value));
+            if (id >= 0) {
+                if (choose(plan, Access.STUDENT, rowsByStudent.count(id), "= " + value)) plan.bucket = id;
+            }
+        } else if (operator == CourseQuery.Operator.EQUALS && column == CourseColumn.SEMESTER) {
+            int group = CourseStore.semesterGroup(Normalizer.clean((String) value));
+            if (group >= 0) {
+                if (choose(plan, Access.SEMESTER, rowsBySemester.count(group), "= " + value)) plan.bucket = group;
+            }
+        } else if (operator == CourseQuery.Operator.CONTAINS
+                && (column == CourseColumn.STUDENT_NAME || column == CourseColumn.STUDENT_ID)
+                && NgramIndex.normalize((String) value).length() >= 3) {
+            // Posting lists count (student, name) pairs; scale by the average rows per pair
+            long pairs = Math.max(1, studentPairRows.size());
+            long estimate = (long) studentSearchIndex.estimate((String) value) * store.size() / pairs + 1;
+            if (choose(plan, Access.TRIGRAM, Math.min(estimate, store.size()), "contains " + value)) {
+                plan.needle = (String) value;
+            }
+        }
+
+        RowOrder order = readyOrder(column);
+        double bound = ordinalOf(column, operator, value);
+        if (order != null && !Double.isNaN(bound)) {
+            IntToDoubleFunction ordinal = ordinal(column);
+            int from = 0;
+            int to = order.size();
+            switch (operator) {
+                case EQUALS:
+                    from = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) >= bound);
+                    to = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) > bound);
+                    break;
+                case GREATER: from = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) > bound); break;
+                case GREATER_OR_EQUAL: from = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) >= bound); break;
+                case LESS: to = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) >= bound); break;
+                case LESS_OR_EQUAL: to = order.firstIndexWhere(row -> ordinal.applyAsDouble(row) > bound); break;
+                default: return;
+            }
+            if (choose(plan, Access.ORDER_RANGE, Math.max(0, to - from), condition.toString())) {
+                plan.orderColumn = column;
+                plan.from = from;
+                plan.to = Math.max(from, to);
+            }
+        }
+    }
+
+    // Switch the plan to an access path if it is cheaper than the current one
+    private static boolean choose(Plan plan, Access access, long estimate, String detail) {
+        if (estimate >= plan.estimate) {
+            return false;
+        }
+        plan.access = access;
+        plan.estimate = estimate;
+        plan.accessDetail = detail;
+        return true;
+    }
+
+    // Feed candidate rows to a visitor until it returns false
+    private void visit(Plan plan, boolean inQueryOrder, IntPredicate visitor) {
+        int bound = store.rowLimit();
+        int visited = 0;
+        if (inQueryOrder || plan.access == Access.ORDER_RANGE) {
+            RowOrder order = orders.get(plan.orderColumn);
+            boolean backwards = inQueryOrder && plan.query.isDescending();
+            for (int i = plan.from; i < plan.to; i++) {
+                if (!visitor.test(order.get(backwards ? plan.to - 1 - (i - plan.from) : i))) return;
+            }
+            return;
+        }
+        switch (plan.access) {
+            case STUDENT:
+            case SEMESTER: {
+                RowBuckets index = plan.access == Access.STUDENT ? rowsByStudent : rowsBySemester;
+                for (int row = index.first(plan.bucket); row != RowBuckets.NONE; row = index.next(row)) {
+                    if (++visited > bound) throw new ConcurrentModificationException();
+                    if (!visitor.test(row)) return;
+                }
+                return;
+            }
+            case TRIGRAM:
+                // A student with several names is walked once per name, so each walk is bounded alone
+                for (long pair : studentSearchIndex.search(plan.needle)) {
+                    int nameId = (int) pair;
+                    visited = 0;
+                    for (int row = rowsByStudent.first(pair >>> 32); row != RowBuckets.NONE; row = rowsByStudent.next(row)) {
+                        if (++visited > bound) throw new ConcurrentModificationException();
+                        if (store.studentNameId(row) == nameId && !visitor.test(row)) return;
+                    }
+                }
+                return;
+            default:
+                for (int row = store.first(); row != RowBuckets.NONE; row = store.next(row)) {
+                    if (++visited > bound) throw new ConcurrentModificationException();
+                    if (!visitor.test(row)) return;
+                }
+        }
+    }
+
+    private RowOrder readyOrder(CourseColumn column) {
+        RowOrder order = orders.get(column);
+        return order != null && !order.isStale() ? order : null;
+    }
+
+    // All conditions as one predicate over row ids
+    private IntPredicate compile(List<CourseQuery.Condition> conditions) {
+        IntPredicate all = row -> true;
+        for (CourseQuery.Condition condition : conditions) {
+            all = all.and(compile(condition));
+        }
+        return all;
+    }
+
+    private IntPredicate compile(CourseQuery.Condition condition) {
+        CourseColumn column = condition.getColumn();
+        CourseQuery.Operator operator = condition.getOperator();
+        if (CourseQuery.isNumeric(column)) {
+            double value = ((Number) condition.getValue()).doubleValue();
+            IntToDoubleFunction ordinal = ordinal(column);
+            return row -> holds(Double.compare(ordinal.applyAsDouble(row), value), operator);
+        }
+
+        String text = Normalizer.clean((String) condition.getValue());
+        if (operator == CourseQuery.Operator.CONTAINS) {
+            String needle = NgramIndex.normalize(text);
+            return row -> NgramIndex.normalize((String) store.value(column, row)).contains(needle);
+        }
+        if (operator == CourseQuery.Operator.EQUALS && column == CourseColumn.SEMESTER) {
+            int group = CourseStore.semesterGroup(text);
+            return row -> store.semesterGroup(row) == group;
+        }
+        double packed = ordinalOf(column, operator, text);
+        if (!Double.isNaN(packed)) {
+            IntToDoubleFunction ordinal = ordinal(column);
+            return row -> holds(Double.compare(ordinal.applyAsDouble(row), packed), operator);
+        }
+        if (operator == CourseQuery.Operator.EQUALS) {
+            return row -> ((String) store.value(column, row)).equalsIgnoreCase(text);
+        }
+        return row -> holds(((String) store.value(column, row)).compareTo(text), operator);
+    }
+
+    private static boolean holds(int comparison, CourseQuery.Operator operator) {
+        switch (operator) {
+            case EQUALS: return comparison == 0;
+            case LESS: return comparison < 0;
+            case LESS_OR_EQUAL: return comparison <= 0;
+            case GREATER: return comparison > 0;
+            case GREATER_OR_EQUAL: return comparison >= 0;
+            default: return false;
+        }
+    }
+
+    // A condition value on the numeric scale its column is ordered by, or NaN when the column
+    // has no such scale or the value does not pack. Semester equality folds case and has none.
+    private static double ordinalOf(CourseColumn column, CourseQuery.Operator operator, Object value) {
+        if (operator == CourseQuery.Operator.CONTAINS) return Double.NaN;
+        if (CourseQuery.isNumeric(column)) return ((Number) value).doubleValue();
+        String text = Normalizer.clean((String) value);
+        int packed;
+        switch (column) {
+            case STUDENT_ID: packed = CourseStore.packStudentId(text); break;
+            case COURSE_ID: packed = CourseStore.packCourseId(text); break;
+            case SEMESTER:
+                packed = operator == CourseQuery.Operator.EQUALS ? -1 : CourseStore.packSemester(text);
+                break;
+            default: packed = -1;
+        }
+        return packed < 0 ? Double.NaN : packed;
+    }
+
+    private IntToDoubleFunction ordinal(CourseColumn column) {
+        switch (column) {
+            case STUDENT_ID: return store::studentId;
+            case COURSE_ID: return store::courseId;
+            case SEMESTER: return store::semester;
+            case HOURS: return store::hours;
+            default: return store::credit;
+        }
+    }
+
+    // Growable int array for collecting matches
+    private static final class IntArray {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
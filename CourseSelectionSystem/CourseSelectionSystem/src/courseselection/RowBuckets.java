@@ -0,0 +1,122 @@
+package courseselection;
+
+import java.util.Arrays;
+
+// Groups row ids into buckets by a long bucket key. Each bucket is an intrusive doubly linked
+// list threaded through per-row next/prev arrays, so membership costs eight bytes per row,
+// adding and removing are O(1), and a bucket iterates in insertion order. A row belongs to
+// at most one bucket of a given RowBuckets.
+public final class RowBuckets {
+    public static final int NONE = -1;
+
+    private final LongIntMap slotsByKey = new LongIntMap();
+    private int[] heads = new int[16];
+    private int[] tails = new int[16];
+    private int[] counts = new int[16];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount = 0;
+    private int slotLimit = 0;
+
+    private int[] next = new int[16];
+    private int[] prev = new int[16];
+
+    // Append a row to the end of its bucket
+    public void add(long bucket, int row) {
+        ensureRowCapacity(row);
+        int slot = slotsByKey.get(bucket);
+        if (slot == LongIntMap.NO_VALUE) {
+            slot = allocateSlot();
+            slotsByKey.put(bucket, slot);
+            heads[slot] = row;
+            prev[row] = NONE;
+        } else {
+            next[tails[slot]] = row;
+            prev[row] = tails[slot];
+        }
+        next[row] = NONE;
+        tails[slot] = row;
+        counts[slot]++;
+    }
+
+    // Unlink a row from the bucket it was added to; an emptied bucket is dropped
+    public void remove(long bucket, int row) {
+        int slot = slotsByKey.get(bucket);
+        if (slot == LongIntMap.NO_VALUE) {
+            return;
+        }
+        int before = prev[row];
+        int after = next[row];
+        if (before == NONE) heads[slot] = after; else next[before] = after;
+        if (after == NONE) tails[slot] = before; else prev[after] = before;
+        if (--counts[slot] == 0) {
+            slotsByKey.remove(bucket);
+            freeSlots = growTo(freeSlots, freeSlotCount + 1);
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    public int count(long bucket) {
+        int slot = slotsByKey.get(bucket);
+        return slot == LongIntMap.NO_VALUE ? 0 : counts[slot];
+    }
+
+    // First row of a bucket, or NONE
+    public int first(long bucket) {
+        int slot = slotsByKey.get(bucket);
+        return slot == LongIntMap.NO_VALUE ? NONE : heads[slot];
+    }
+
+    // Row after the given one in its bucket, or NONE
+    public int next(int row) {
+        return next[row];
+    }
+
+    // Rows of a bucket in insertion order
+    public int[] rows(long bucket) {
+        int[] rows = new int[count(bucket)];
+        int i = 0;
+        for (int row = first(bucket); row != NONE; row = next[row]) {
+            rows[i++] = row;
+        }
+        return rows;
+    }
+
+    public int bucketCount() {
+        return slotsByKey.size();
+    }
+
+    public void clear() {
+        slotsByKey.clear();
+        freeSlotCount = 0;
+        slotLimit = 0;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotLimit == heads.length) {
+            int capacity = heads.length * 2;
+            heads = Arrays.copyOf(heads, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        counts[slotLimit] = 0;
+        return slotLimit++;
+    }
+
+    private void ensureRowCapacity(int row) {
+        if (row >= next.length) {
+            next = growTo(next, row + 1);
+            prev = growTo(prev, row + 1);
+        }
+    }
+
+    // Grow by half again until the array holds at least minSize elements
+    private static int[] growTo(int[] array, int minSize) {
+        if (minSize <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(minSize, array.length + (array.length >> 1)));
+    }
+}
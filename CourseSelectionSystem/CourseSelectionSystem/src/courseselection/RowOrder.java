@@ -0,0 +1,148 @@
+package courseselection;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+// Row ids kept sorted by a comparator over store columns, as one int array with positional
+// access. Single changes are applied in place (binary search plus an array shift); bulk loads
+// mark the order stale instead, and refresh() sorts all live rows once. Reads never sort on
+// their own, so they stay side-effect free; call refresh() first whenever isStale().
+public final class RowOrder {
+    // Total order over live rows; ties must be broken so that distinct rows never compare equal
+    public interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    private final RowComparator comparator;
+    private final Supplier<int[]> liveRows;
+    private int[] rows = new int[0];
+    private int size = 0;
+    private boolean stale = false;
+
+    public RowOrder(RowComparator comparator, Supplier<int[]> liveRows) {
+        this.comparator = comparator;
+        this.liveRows = liveRows;
+    }
+
+    // Call after the row's column values are stored
+    public void insert(int row) {
+        if (stale) return;
+        int index = -(search(row) + 1);
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(16, size + (size >> 1)));
+        }
+        System.arraycopy(rows, index, rows, index + 1, size - index);
+        rows[index] = row;
+        size++;
+    }
+
+    // Call while the row's column values are still in place
+    public void remove(int row) {
+        if (stale) return;
+        int index = search(row);
+        if (index < 0) return;
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        size--;
+    }
+
+    // Drop the current order until the next refresh()
+    public void invalidate() {
+        stale = true;
+        rows = new int[0];
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return rows[index];
+    }
+
+    // Up to limit rows starting at offset; out-of-range parts are clipped
+    public int[] range(int offset, int limit) {
+        int from = Math.max(0, offset);
+        int to = (int) Math.min(size, (long) from + Math.max(0, limit));
+        return from >= to ? new int[0] : Arrays.copyOfRange(rows, from, to);
+    }
+
+    // Index of the first row matching a predicate that is false for a prefix of the order and
+    // true for the rest; size() when no row matches
+    public int firstIndexWhere(IntPredicate predicate) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (predicate.test(rows[mid])) hi = mid; else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    // Re-sort all live rows if the order was invalidated
+    public void refresh() {
+        if (!stale) return;
+        rows = liveRows.get();
+        size = rows.length;
+        sort(rows, new int[size], 0, size, comparator);
+        stale = false;
+    }
+
+    // Sort arbitrary row ids in place, e.g. the matches of a query
+    public static void sort(int[] rows, RowComparator comparator) {
+        sort(rows, new int[rows.length], 0, rows.length, comparator);
+    }
+
+    // Index of row if present, otherwise -(insertion point) - 1
+    private int search(int row) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = comparator.compare(rows[mid], row);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // Merge sort of a[from, to) using scratch of the same length; insertion sort for short runs
+    private static void sort(int[] a, int[] scratch, int from, int to, RowComparator comparator) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = a[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(a[j], row) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(a, scratch, from, mid, comparator);
+        sort(a, scratch, mid, to, comparator);
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, scratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && comparator.compare(scratch[i], scratch[j]) <= 0)) {
+                a[k] = scratch[i++];
+            } else {
+                a[k] = scratch[j++];
+            }
+        }
+    }
+}
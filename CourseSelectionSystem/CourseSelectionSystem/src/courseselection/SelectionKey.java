@@ -0,0 +1,84 @@
+package courseselection;
+
+import java.util.Objects;
+
+// Normalized composite key (studentId, courseId, semester) that identifies a course selection
+public final class SelectionKey implements Comparable<SelectionKey> {
+    private final String studentId;
+    private final String courseId;
+    private final String semester;
+    private final int hash;
+
+    private SelectionKey(String studentId, String courseId, String semester) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.semester = semester;
+        // Same value as Objects.hash, without the varargs array
+        this.hash = 31 * (31 * (31 + Objects.hashCode(studentId)) + Objects.hashCode(courseId))
+                    + Objects.hashCode(semester);
+    }
+
+    // Build a key from raw input, applying the same cleaning used for comparisons
+    public static SelectionKey of(String studentId, String courseId, String semester) {
+        return new SelectionKey(
+            Normalizer.clean(studentId),
+            Normalizer.clean(courseId),
+            Normalizer.clean(semester)
+        );
+    }
+
+    // Key of a record; cached on the record so repeated lookups allocate nothing
+    public static SelectionKey of(CourseSelection course) {
+        return course.getKey();
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    @Override
+    public int compareTo(SelectionKey other) {
+        if (this == other) return 0;
+        int c = compareField(studentId, other.studentId);
+        if (c != 0) return c;
+        c = compareField(courseId, other.courseId);
+        return c != 0 ? c : compareField(semester, other.semester);
+    }
+
+    // Null-first string comparison with an identity shortcut for pooled values
+    private static int compareField(String a, String b) {
+        if (a == b) return 0;
+        if (a == null) return -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SelectionKey)) return false;
+        SelectionKey other = (SelectionKey) o;
+        return hash == other.hash &&
+               Objects.equals(studentId, other.studentId) &&
+               Objects.equals(courseId, other.courseId) &&
+               Objects.equals(semester, other.semester);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return studentId + "/" + courseId + "/" + semester;
+    }
+}
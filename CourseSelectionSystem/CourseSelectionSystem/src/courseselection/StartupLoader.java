@@ -0,0 +1,65 @@
+package courseselection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Loads the saved data into a manager on a background thread, so the first window can open
+// while it is read. The journal is attached only once the rows are in, so they are not
+// journaled a second time. Until isLoaded() the manager holds part of the data at most and
+// must not be checkpointed over the data file; after a failed load no journal is attached,
+// so the manager must not be edited either.
+public final class StartupLoader {
+    private final CompletableFuture<Integer> loaded = new CompletableFuture<>();
+    private volatile double progress = 0;
+
+    private StartupLoader() {
+    }
+
+    public static StartupLoader start(FileHandler fileHandler, CourseManager manager) {
+        StartupLoader loader = new StartupLoader();
+        Thread thread = new Thread(() -> {
+            try {
+                int rows = fileHandler.loadInto(manager, fraction -> loader.progress = fraction);
+                fileHandler.attachJournal(manager);
+                loader.loaded.complete(rows);
+            } catch (Throwable t) {
+                // Errors too, or waiting callers would never hear that the load ended
+                System.err.println("Failed to load data: " + t);
+                loader.loaded.completeExceptionally(t);
+                if (t instanceof Error) {
+                    throw (Error) t;
+                }
+            }
+        }, "startup-load");
+        thread.setDaemon(true);
+        thread.start();
+        return loader;
+    }
+
+    // Fraction of the load done, from 0 to 1
+    public double getProgress() {
+        return progress;
+    }
+
+    // Finished, successfully or not
+    public boolean isDone() {
+        return loaded.isDone();
+    }
+
+    // Finished and every saved row is in the manager
+    public boolean isLoaded() {
+        return loaded.isDone() && !loaded.isCompletedExceptionally();
+    }
+
+    // Rows loaded; blocks until the load has finished
+    public int await() {
+        return loaded.join();
+    }
+
+    // Run an action on the executor once the load has finished, successfully or not;
+    // it receives the failure, or null
+    public void whenDone(Executor executor, Consumer<Throwable> action) {
+        loaded.whenCompleteAsync((rows, failure) -> action.accept(failure), executor);
+    }
+}
@@ -0,0 +1,269 @@
+package courseselection;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs UI background work by named operation.
+//  - A request whose operation and key equal one still in flight joins it instead of running again.
+//  - Operations configured to supersede cancel their other in-flight requests when a new one
+//    arrives; a cancelled request never delivers.
+//  - Cancelling never interrupts: an interrupt closes any FileChannel the work is using, which
+//    would break the journal. Long work polls cancelRequested() and stops at a safe point.
+//  - Each operation has a concurrency limit; requests beyond it wait in a queue. A cancelled
+//    request stops counting against the limit at once, even while its work winds down.
+//  - Results, failures and progress are all delivered through the one callback executor
+//    (Platform::runLater in the Dashboard). A failure nobody handles is counted in Metrics and
+//    passed to the callback thread's uncaught exception handler.
+// Work runs on virtual threads when the JDK has them, otherwise on a bounded daemon pool.
+public final class TaskScheduler {
+    private static final ThreadLocal<Task<?>> CURRENT = new ThreadLocal<>();
+
+    private final ExecutorService workers;
+    private final Executor callbacks;
+    private final Map<String, Operation> operations = new HashMap<>();
+
+    public TaskScheduler(Executor callbacks) {
+        this.workers = createWorkers();
+        this.callbacks = callbacks;
+    }
+
+    // Set the concurrency limit of an operation and whether new requests cancel older ones
+    public synchronized void configure(String operation, int maxConcurrent, boolean supersede) {
+        Operation op = operation(operation);
+        op.maxConcurrent = Math.max(1, maxConcurrent);
+        op.supersede = supersede;
+    }
+
+    // Schedule work; onSuccess or onFailure later runs on the callback executor unless the
+    // request is cancelled first. Either callback may be null.
+    public synchronized <T> Task<T> submit(String operation, Object key, Callable<T> work,
+                                           Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Operation op = operation(operation);
+        @SuppressWarnings("unchecked")
+        Task<T> existing = (Task<T>) op.inFlight.get(key);
+        if (existing != null) {
+            existing.addCallbacks(onSuccess, onFailure);
+            return existing;
+        }
+        if (op.supersede) {
+            for (Task<?> other : new ArrayList<>(op.inFlight.values())) {
+                cancel(other);
+            }
+        }
+
+        Task<T> task = new Task<>(this, op, key, work);
+        task.addCallbacks(onSuccess, onFailure);
+        op.inFlight.put(key, task);
+        if (op.running < op.maxConcurrent) {
+            start(task);
+        } else {
+            op.queued.add(task);
+        }
+        return task;
+    }
+
+    // Run a UI update on the callback executor, e.g. progress reported by a running task
+    public void deliver(Runnable update) {
+        callbacks.execute(update);
+    }
+
+    // Cancel every request of an operation
+    public synchronized void cancelAll(String operation) {
+        Operation op = operations.get(operation);
+        if (op != null) {
+            for (Task<?> task : new ArrayList<>(op.inFlight.values())) {
+                cancel(task);
+            }
+        }
+    }
+
+    // Stop accepting work and cancel every request, then wait up to timeoutMillis for running
+    // tasks to reach a stopping point, so none is still writing when the caller saves and closes
+    // the data files. Returns false if some task was still running when the wait ran out; it is
+    // left to finish on its own. Cancelled tasks deliver nothing.
+    public boolean shutdown(long timeoutMillis) {
+        synchronized (this) {
+            for (Operation op : operations.values()) {
+                for (Task<?> task : new ArrayList<>(op.inFlight.values())) {
+                    cancel(task);
+                }
+            }
+        }
+        workers.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean interrupted = false;
+        long remaining;
+        while (!workers.isTerminated() && (remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                workers.awaitTermination(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return workers.isTerminated();
+    }
+
+    // Whether the task running on this thread has been cancelled; long work such as an import
+    // polls this between batches. False outside a task.
+    public static boolean cancelRequested() {
+        Task<?> task = CURRENT.get();
+        return task != null && task.cancelled;
+    }
+
+    private Operation operation(String name) {
+        return operations.computeIfAbsent(name, k -> new Operation());
+    }
+
+    private void start(Task<?> task) {
+        task.operation.running++;
+        task.holdsSlot = true;
+        workers.execute(task::run);
+    }
+
+    // A running task gives up its slot here rather than when its work returns, so a request
+    // that superseded it does not wait behind it
+    private synchronized void cancel(Task<?> task) {
+        if (task.cancelled) return;
+        task.cancelled = true;
+        task.operation.inFlight.remove(task.key, task);
+        task.operation.queued.remove(task);
+        releaseSlot(task);
+    }
+
+    // Called once by every started task when its work ends.
+    // Afterwards no request can join the task, so its callback lists are final.
+    private synchronized void finish(Task<?> task) {
+        task.operation.inFlight.remove(task.key, task);
+        releaseSlot(task);
+    }
+
+    // Free the task's slot, if it still holds one, and start queued requests
+    private void releaseSlot(Task<?> task) {
+        if (!task.holdsSlot) return;
+        task.holdsSlot = false;
+        Operation op = task.operation;
+        op.running--;
+        while (op.running < op.maxConcurrent && !op.queued.isEmpty()) {
+            Task<?> next = op.queued.poll();
+            if (!next.cancelled) {
+                start(next);
+            }
+        }
+    }
+
+    private static ExecutorService createWorkers() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // No virtual threads on this JDK (or only as a disabled preview)
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "ui-task-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private static final class Operation {
+        int maxConcurrent = Integer.MAX_VALUE;
+        boolean supersede = false;
+        int running = 0;
+        final Deque<Task<?>> queued = new ArrayDeque<>();
+        final Map<Object, Task<?>> inFlight = new HashMap<>();
+    }
+
+    // Handle of a scheduled request, shared by every request coalesced into it
+    public static final class Task<T> {
+        private final TaskScheduler scheduler;
+        private final Operation operation;
+        private final Object key;
+        private final Callable<T> work;
+        private final List<Consumer<? super T>> successCallbacks = new ArrayList<>(1);
+        private final List<Consumer<Throwable>> failureCallbacks = new ArrayList<>(1);
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+        // Counted in operation.running; guarded by the scheduler
+        private boolean holdsSlot = false;
+
+        private Task(TaskScheduler scheduler, Operation operation, Object key, Callable<T> work) {
+            this.scheduler = scheduler;
+            this.operation = operation;
+            this.key = key;
+            this.work = work;
+        }
+
+        // Drop the result; work already running sees cancelRequested() and may stop early
+        public void cancel() {
+            scheduler.cancel(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        private void addCallbacks(Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+            if (onSuccess != null) successCallbacks.add(onSuccess);
+            if (onFailure != null) failureCallbacks.add(onFailure);
+        }
+
+        private void run() {
+            T result = null;
+            Throwable error = null;
+            CURRENT.set(this);
+            try {
+                if (!cancelled) {
+                    result = work.call();
+                }
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                CURRENT.remove();
+            }
+            scheduler.finish(this);
+            done = true;
+
+            if (cancelled) return;
+            T value = result;
+            Throwable failure = error;
+            scheduler.callbacks.execute(() -> {
+                if (cancelled) return;
+                if (failure == null) {
+                    successCallbacks.forEach(callback -> callback.accept(value));
+                } else if (failureCallbacks.isEmpty()) {
+                    Metrics.add(Metrics.Counter.TASKS_FAILED, 1);
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+                } else {
+                    failureCallbacks.forEach(callback -> callback.accept(failure));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns dense int ids to distinct strings; every lookup by id returns the one shared instance.
+// Append-only: ids stay valid until clear(), even when no row uses the string any more.
+public final class TextDictionary {
+    public static final int NULL_ID = 0;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public TextDictionary() {
+        values.add(null);
+    }
+
+    // Id of the value, adding it on first use; null maps to NULL_ID
+    public int idOf(String value) {
+        if (value == null) return NULL_ID;
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    // Id of the value if it is known, otherwise -1
+    public int find(String value) {
+        if (value == null) return NULL_ID;
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    public String get(int id) {
+        return values.get(id);
+    }
+
+    // Number of ids handed out, including NULL_ID
+    public int size() {
+        return values.size();
+    }
+
+    // The value of every id, indexed by id
+    public String[] toArray() {
+        return values.toArray(new String[0]);
+    }
+
+    public void clear() {
+        ids.clear();
+        values.clear();
+        values.add(null);
+    }
+}
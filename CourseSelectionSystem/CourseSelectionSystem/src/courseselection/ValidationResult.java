@@ -0,0 +1,51 @@
+package courseselection;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of validating one course selection; carries every failed rule rather than the first
+public final class ValidationResult {
+    private static final ValidationResult VALID = new ValidationResult(-1, Collections.emptyList());
+
+    private final int row;
+    private final List<String> errors;
+
+    private ValidationResult(int row, List<String> errors) {
+        this.row = row;
+        this.errors = errors;
+    }
+
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    // row is the record's 1-based position in its batch, or -1 when validated on its own
+    public static ValidationResult of(int row, List<String> errors) {
+        if (errors.isEmpty() && row < 0) {
+            return VALID;
+        }
+        return new ValidationResult(row, errors.isEmpty() ? errors : Collections.unmodifiableList(errors));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    // All errors on one line, suitable for a single alert
+    public String getMessage() {
+        return String.join("; ", errors);
+    }
+
+    @Override
+    public String toString() {
+        return row >= 0 ? "Row " + row + ": " + getMessage() : getMessage();
+    }
+}
@@ -0,0 +1,133 @@
+package courseselection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Headless validation rules for course selections; no regex compilation and no UI
+public final class Validator {
+    public static final String STUDENT_ID_MESSAGE = "Student ID must be 6 digits";
+    public static final String COURSE_ID_MESSAGE = "Course ID must be 3 letters followed by 3 digits";
+    public static final String SEMESTER_MESSAGE = "Semester must be in YYYY-F or YYYY-S format";
+    public static final String COURSE_TYPE_MESSAGE = "Course type must be 'exam' or 'check'";
+    public static final String CREDIT_MESSAGE = "Credit must be positive";
+    public static final String HOURS_MESSAGE = "Hours must be positive";
+    public static final String NAME_MESSAGE = "Name may only contain letters, spaces, apostrophes, hyphens and periods";
+    public static final String COURSE_NAME_MESSAGE = "Course name contains invalid characters";
+    public static final String MISSING_RECORD_MESSAGE = "Row could not be parsed";
+
+    private Validator() {
+    }
+
+    // Exactly six ASCII digits
+    public static boolean isValidStudentId(String id) {
+        if (id == null || id.length() != 6) return false;
+        for (int i = 0; i < 6; i++) {
+            if (!isAsciiDigit(id.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Three ASCII letters followed by three ASCII digits
+    public static boolean isValidCourseId(String id) {
+        if (id == null || id.length() != 6) return false;
+        for (int i = 0; i < 3; i++) {
+            if (!isAsciiLetter(id.charAt(i)) || !isAsciiDigit(id.charAt(i + 3))) return false;
+        }
+        return true;
+    }
+
+    // YYYY-F or YYYY-S, term letter in either case
+    public static boolean isValidSemester(String semester) {
+        if (semester == null || semester.length() != 6) return false;
+        for (int i = 0; i < 4; i++) {
+            if (!isAsciiDigit(semester.charAt(i))) return false;
+        }
+        char term = semester.charAt(5);
+        return semester.charAt(4) == '-' &&
+               (term == 'F' || term == 'f' || term == 'S' || term == 's');
+    }
+
+    public static boolean isValidCourseType(String type) {
+        return "exam".equalsIgnoreCase(type) || "check".equalsIgnoreCase(type);
+    }
+
+    public static boolean isValidCredit(double credit) {
+        return credit > 0;
+    }
+
+    public static boolean isValidHours(int hours) {
+        return hours > 0;
+    }
+
+    // A letter followed by letters, spaces, apostrophes, hyphens or periods
+    public static boolean isValidName(String name) {
+        if (name == null || name.isEmpty() || !Character.isLetter(name.charAt(0))) return false;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetter(c) && c != ' ' && c != '.' && c != '\'' && c != '-') return false;
+        }
+        return true;
+    }
+
+    // A letter or digit followed by letters, digits, spaces or common punctuation (never a comma)
+    public static boolean isValidCourseName(String name) {
+        if (name == null || name.isEmpty() || !Character.isLetterOrDigit(name.charAt(0))) return false;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && " .&()'+#:/-".indexOf(c) < 0) return false;
+        }
+        return true;
+    }
+
+    // Validate every field of one record
+    public static ValidationResult validate(CourseSelection course) {
+        return validate(course, -1);
+    }
+
+    public static ValidationResult validate(CourseSelection course, int row) {
+        if (course == null) {
+            return ValidationResult.of(row, List.of(MISSING_RECORD_MESSAGE));
+        }
+        // The error list is only allocated once a rule fails
+        List<String> errors = null;
+        if (!isValidStudentId(course.getStudentId())) errors = addError(errors, STUDENT_ID_MESSAGE);
+        if (!isValidCourseId(course.getCourseId())) errors = addError(errors, COURSE_ID_MESSAGE);
+        if (!isValidSemester(course.getSemester())) errors = addError(errors, SEMESTER_MESSAGE);
+        if (!isValidHours(course.getHours())) errors = addError(errors, HOURS_MESSAGE);
+        if (!isValidCredit(course.getCredit())) errors = addError(errors, CREDIT_MESSAGE);
+        if (!isValidCourseType(course.getType())) errors = addError(errors, COURSE_TYPE_MESSAGE);
+        if (!isValidName(course.getStudentName())) errors = addError(errors, NAME_MESSAGE);
+        if (!isValidCourseName(course.getCourseName())) errors = addError(errors, COURSE_NAME_MESSAGE);
+        return ValidationResult.of(row, errors != null ? errors : List.of());
+    }
+
+    // Validate a batch in one pass; results line up with the input and carry 1-based row numbers
+    public static List<ValidationResult> validateBatch(List<CourseSelection> courses) {
+        return validateBatch(courses, 1);
+    }
+
+    // Same, numbering rows from firstRow (e.g. the file line of the batch's first record)
+    public static List<ValidationResult> validateBatch(List<CourseSelection> courses, int firstRow) {
+        List<ValidationResult> results = new ArrayList<>(courses.size());
+        for (int i = 0; i < courses.size(); i++) {
+            results.add(validate(courses.get(i), firstRow + i));
+        }
+        return results;
+    }
+
+    private static List<String> addError(List<String> errors, String message) {
+        if (errors == null) {
+            errors = new ArrayList<>(2);
+        }
+        errors.add(message);
+        return errors;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}